@@ -0,0 +1,106 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.Booking;
+import com.hoteldeck.CsvSnapshot;
+import com.hoteldeck.Customer;
+import com.hoteldeck.FsyncPolicy;
+import com.hoteldeck.HotelConfig;
+import com.hoteldeck.PersistenceMode;
+import com.hoteldeck.Room;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic datasets for the benchmarks, written as a CSV snapshot into a temporary
+ * directory. Generation is seeded, so every run measures the same data.
+ */
+final class BenchData {
+    static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    static final String[] TYPES = {"Single", "Double", "Deluxe"};
+
+    private BenchData() {
+    }
+
+    static int roomsFor(int customers) {
+        return Math.max(10, customers / 10);
+    }
+
+    /**
+     * Writes {@code customers} customers, one room per ten customers and two back-to-back
+     * stays per customer, spread over the rooms so no two stays of a room overlap.
+     */
+    static Path generate(int customers) {
+        try {
+            Path dir = Files.createTempDirectory("hoteldeck-bench");
+            Random random = new Random(42);
+            int roomCount = roomsFor(customers);
+
+            List<Customer> customerList = new ArrayList<>(customers);
+            for (int id = 1; id <= customers; id++) {
+                customerList.add(new Customer(id, "Guest " + name(id), "guest" + id + "@example.com",
+                        String.valueOf(9000000000L + id)));
+            }
+            List<Room> roomList = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                roomList.add(new Room(100 + i, TYPES[i % TYPES.length], 2000 + 500 * random.nextInt(10)));
+            }
+            // Fill each room's calendar from the start, two to five nights per stay
+            LocalDate[] nextFree = new LocalDate[roomCount];
+            Arrays.fill(nextFree, FIRST_DAY);
+            List<Booking> bookingList = new ArrayList<>(customers * 2);
+            int bookingId = 1;
+            for (Customer customer : customerList) {
+                for (int k = 0; k < 2; k++) {
+                    int r = random.nextInt(roomCount);
+                    LocalDate in = nextFree[r];
+                    LocalDate out = in.plusDays(2 + random.nextInt(4));
+                    nextFree[r] = out;
+                    bookingList.add(new Booking(bookingId++, roomList.get(r), customer, in, out));
+                }
+            }
+            bookingList.sort(Comparator.comparingInt(Booking::getId));
+            new CsvSnapshot(dir).save(customerList, roomList, bookingList);
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Names must be letters only to pass validation
+    private static String name(int id) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + id % 26));
+            id /= 26;
+        } while (id > 0);
+        return sb.toString();
+    }
+
+    static HotelConfig config(Path dir, PersistenceMode mode) {
+        HotelConfig config = new HotelConfig();
+        config.setDataDir(dir);
+        config.setPersistenceMode(mode);
+        config.setFsyncPolicy(FsyncPolicy.NEVER);
+        config.setCompactIntervalSeconds(3600);
+        config.setCompactThresholdBytes(Long.MAX_VALUE);
+        return config;
+    }
+
+    static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
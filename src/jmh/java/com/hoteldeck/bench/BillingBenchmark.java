@@ -0,0 +1,66 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.Bill;
+import com.hoteldeck.HotelDeck;
+import com.hoteldeck.PersistenceMode;
+import com.hoteldeck.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bill generation for one customer, as run by "Generate Bill" and GET /customers/{id}/bill,
+ * and for every customer at once, as in an end-of-day run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BillingBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int customers;
+
+    private Path dir;
+    private HotelDeck hotel;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = BenchData.generate(customers);
+        hotel = new HotelDeck(BenchData.config(dir, PersistenceMode.CSV));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hotel.close();
+        BenchData.delete(dir);
+    }
+
+    @Benchmark
+    public Result<Bill> generateBill() {
+        next = next % customers + 1;
+        return hotel.generateBill(next);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Bill> generateAllBills() {
+        return hotel.generateAllBills();
+    }
+}
@@ -0,0 +1,103 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.Booking;
+import com.hoteldeck.HotelDeck;
+import com.hoteldeck.PersistenceMode;
+import com.hoteldeck.Result;
+import com.hoteldeck.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking paths end to end through {@link HotelDeck}, persistence included. CSV mode
+ * rewrites the whole booking file on every change, so it is only run on the small dataset.
+ * The journal runs with fsync disabled to measure the code rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+    private static final int GROUP = 50;
+
+    @Param({"1000", "10000"})
+    public int customers;
+
+    @Param({"JOURNAL", "CSV"})
+    public PersistenceMode persistence;
+
+    private Path dir;
+    private HotelDeck hotel;
+    private int roomCount;
+    private int next;
+    // Far beyond the generated stays, so the book/cancel pair never conflicts
+    private final LocalDate checkIn = BenchData.FIRST_DAY.plusYears(50);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = BenchData.generate(customers);
+        hotel = new HotelDeck(BenchData.config(dir, persistence));
+        roomCount = BenchData.roomsFor(customers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hotel.close();
+        BenchData.delete(dir);
+    }
+
+    /** Books a three-night stay and cancels it again, leaving the data unchanged. */
+    @Benchmark
+    public Result<Booking> bookAndCancel() {
+        next = (next + 1) % roomCount;
+        Result<Booking> booked = hotel.bookRoom(100 + next, 1 + next % customers, checkIn, checkIn.plusDays(3));
+        return hotel.cancelBooking(booked.getValue().getId());
+    }
+
+    /**
+     * Books a block of rooms as one group and cancels them again; the score is in rooms
+     * booked (and cancelled) per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(GROUP)
+    public void bookGroupAndCancel() {
+        next = (next + GROUP) % (roomCount - GROUP);
+        List<Integer> roomIds = new ArrayList<>(GROUP);
+        for (int i = 0; i < GROUP; i++) {
+            roomIds.add(100 + next + i);
+        }
+        Result<List<Booking>> booked = hotel.bookRooms(roomIds, 1 + next % customers, checkIn, checkIn.plusDays(3));
+        for (Booking booking : booked.getValue()) {
+            hotel.cancelBooking(booking.getId());
+        }
+    }
+
+    @Benchmark
+    public List<Room> freeRooms() {
+        next = (next + 1) % 365;
+        LocalDate in = BenchData.FIRST_DAY.plusDays(next);
+        return hotel.freeRooms("Double", in, in.plusDays(3));
+    }
+}
@@ -0,0 +1,102 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.Customer;
+import com.hoteldeck.HotelDeck;
+import com.hoteldeck.PersistenceMode;
+import com.hoteldeck.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single lookups by ID, cycling through a fixed random order so neither the CPU's
+ * branch predictor nor its caches see one hot key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int KEYS = 4096;
+
+    @Param({"1000", "10000", "100000"})
+    public int customers;
+
+    private Path dir;
+    private HotelDeck hotel;
+    private int[] customerIds;
+    private int[] roomIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = BenchData.generate(customers);
+        hotel = new HotelDeck(BenchData.config(dir, PersistenceMode.CSV));
+        Random random = new Random(7);
+        customerIds = new int[KEYS];
+        roomIds = new int[KEYS];
+        int rooms = BenchData.roomsFor(customers);
+        for (int i = 0; i < KEYS; i++) {
+            customerIds[i] = 1 + random.nextInt(customers);
+            roomIds[i] = 100 + random.nextInt(rooms);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hotel.close();
+        BenchData.delete(dir);
+    }
+
+    @Benchmark
+    public Customer findCustomer() {
+        next = (next + 1) & (KEYS - 1);
+        return hotel.findCustomerById(customerIds[next]);
+    }
+
+    @Benchmark
+    public Room findRoom() {
+        next = (next + 1) & (KEYS - 1);
+        return hotel.findRoomById(roomIds[next]);
+    }
+
+    /** "All Deluxe up to 4000" scanned from the room columns. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Room> filterRooms() {
+        return hotel.findRooms("Deluxe", 0, 4000, false);
+    }
+
+    /** The same filter over the room objects, for comparison. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Room> filterRoomObjects() {
+        return hotel.rooms().stream()
+                .filter(room -> room.getType().equalsIgnoreCase("Deluxe") && room.getPrice() <= 4000)
+                .toList();
+    }
+
+    /** Full ID-ordered listing, as behind "View Customers" and GET /customers. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Customer> listCustomers() {
+        return hotel.customers();
+    }
+}
@@ -0,0 +1,84 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.Booking;
+import com.hoteldeck.CsvSnapshot;
+import com.hoteldeck.Customer;
+import com.hoteldeck.EntityStore;
+import com.hoteldeck.EntityTable;
+import com.hoteldeck.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ID-ordered tables took over from the old per-listing merge sorts of customers,
+ * rooms and bookings. Each benchmark fills a table in shuffled ID order and returns its
+ * ordered view, which is the work the sorts used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderedTableBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int customers;
+
+    private List<Customer> customerList;
+    private List<Room> roomList;
+    private List<Booking> bookingList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Path dir = BenchData.generate(customers);
+        EntityStore store = new EntityStore();
+        new CsvSnapshot(dir).load(store);
+        BenchData.delete(dir);
+        Random random = new Random(11);
+        customerList = new ArrayList<>(store.customers().ordered());
+        roomList = new ArrayList<>(store.rooms().ordered());
+        bookingList = new ArrayList<>(store.bookings().list());
+        Collections.shuffle(customerList, random);
+        Collections.shuffle(roomList, random);
+        Collections.shuffle(bookingList, random);
+    }
+
+    private static <T> List<T> fill(EntityTable<T> table, List<T> items) {
+        for (T item : items) {
+            table.put(item);
+        }
+        return table.ordered();
+    }
+
+    @Benchmark
+    public List<Customer> customersById() {
+        return fill(new EntityTable<>(Customer::getId), customerList);
+    }
+
+    @Benchmark
+    public List<Room> roomsById() {
+        return fill(new EntityTable<>(Room::getId), roomList);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsById() {
+        return fill(new EntityTable<>(Booking::getId), bookingList);
+    }
+}
@@ -0,0 +1,90 @@
+package com.hoteldeck.bench;
+
+import com.hoteldeck.BinarySnapshot;
+import com.hoteldeck.Booking;
+import com.hoteldeck.CsvSnapshot;
+import com.hoteldeck.Customer;
+import com.hoteldeck.EntityStore;
+import com.hoteldeck.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup load and full snapshot save, as CSV files and as a binary snapshot. Saved copies
+ * go to their own directory so the load benchmarks always read the generated data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int customers;
+
+    private Path dir;
+    private Path saveDir;
+    private List<Customer> customerList;
+    private List<Room> roomList;
+    private List<Booking> bookingList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = BenchData.generate(customers);
+        saveDir = Files.createTempDirectory("hoteldeck-bench-save");
+        EntityStore store = load();
+        customerList = new ArrayList<>(store.customers().ordered());
+        roomList = new ArrayList<>(store.rooms().ordered());
+        bookingList = new ArrayList<>(store.bookings().list());
+        new BinarySnapshot(dir).save(customerList, roomList, bookingList);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.delete(dir);
+        BenchData.delete(saveDir);
+    }
+
+    @Benchmark
+    public EntityStore load() {
+        EntityStore store = new EntityStore();
+        new CsvSnapshot(dir).load(store);
+        return store;
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        new CsvSnapshot(saveDir).save(customerList, roomList, bookingList);
+    }
+
+    @Benchmark
+    public EntityStore loadBinary() {
+        EntityStore store = new EntityStore();
+        new BinarySnapshot(dir).load(store);
+        return store;
+    }
+
+    @Benchmark
+    public void saveBinary() throws IOException {
+        new BinarySnapshot(saveDir).save(customerList, roomList, bookingList);
+    }
+}
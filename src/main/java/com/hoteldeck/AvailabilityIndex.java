@@ -0,0 +1,81 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-room date-range availability. Each room has a {@link RoomSchedule}, created when the
+ * room is added so that booking never changes the map itself; a room ID without one is
+ * free on every date.
+ */
+public class AvailabilityIndex {
+    private final IntMap<RoomSchedule> schedules = new IntMap<>();
+
+    public void addRoom(int roomId) {
+        if (!schedules.containsKey(roomId)) {
+            schedules.put(roomId, new RoomSchedule());
+        }
+    }
+
+    /**
+     * Drops the room's schedule unless bookings still refer to it.
+     */
+    public void removeRoom(int roomId) {
+        RoomSchedule schedule = schedules.get(roomId);
+        if (schedule != null && schedule.isEmpty()) {
+            schedules.remove(roomId);
+        }
+    }
+
+    public boolean isFree(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomSchedule schedule = schedules.get(roomId);
+        return schedule == null
+                || schedule.isFree(RoomSchedule.epochDay(checkIn), RoomSchedule.epochDay(checkOut));
+    }
+
+    public boolean isOccupied(int roomId, LocalDate day) {
+        RoomSchedule schedule = schedules.get(roomId);
+        return schedule != null && schedule.isOccupied(RoomSchedule.epochDay(day));
+    }
+
+    /**
+     * Claims the booking's dates on its room. Returns false if they overlap an existing stay.
+     * Only loading reserves for a room that was never added, so only loading creates schedules here.
+     */
+    public boolean reserve(Booking booking) {
+        int roomId = booking.getRoom().getId();
+        RoomSchedule schedule = schedules.get(roomId);
+        if (schedule == null) {
+            schedule = new RoomSchedule();
+            schedules.put(roomId, schedule);
+        }
+        return schedule.add(booking);
+    }
+
+    public boolean release(Booking booking) {
+        int roomId = booking.getRoom().getId();
+        RoomSchedule schedule = schedules.get(roomId);
+        return schedule != null && schedule.remove(booking);
+    }
+
+    /**
+     * The rooms from {@code rooms} that are free for the whole stay, in the order given.
+     */
+    public List<Room> freeRooms(Iterable<Room> rooms, LocalDate checkIn, LocalDate checkOut) {
+        int in = RoomSchedule.epochDay(checkIn);
+        int out = RoomSchedule.epochDay(checkOut);
+        List<Room> free = new ArrayList<>();
+        for (Room room : rooms) {
+            RoomSchedule schedule = schedules.get(room.getId());
+            if (schedule == null || schedule.isFree(in, out)) {
+                free.add(room);
+            }
+        }
+        return free;
+    }
+
+    public RoomSchedule scheduleOf(int roomId) {
+        return schedules.get(roomId);
+    }
+}
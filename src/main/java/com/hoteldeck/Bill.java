@@ -0,0 +1,98 @@
+package com.hoteldeck;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * A customer's bill: one line per booking and the total.
+ */
+public class Bill {
+    private final Customer customer;
+    private final List<Line> lines;
+    private final double total;
+
+    public Bill(Customer customer, List<Line> lines) {
+        this.customer = customer;
+        this.lines = List.copyOf(lines);
+        double sum = 0;
+        for (Line line : lines) {
+            sum += line.getCost();
+        }
+        this.total = sum;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    /**
+     * One booking on the bill. Over a {@link HotelRouter} a line also names the property the
+     * booking was made at, as booking and room IDs are only unique within one property.
+     */
+    public static class Line {
+        private final Integer propertyId;
+        private final int bookingId;
+        private final int roomId;
+        private final long nights;
+        private final double cost;
+
+        public Line(int bookingId, int roomId, long nights, double cost) {
+            this(null, bookingId, roomId, nights, cost);
+        }
+
+        public Line(Integer propertyId, int bookingId, int roomId, long nights, double cost) {
+            this.propertyId = propertyId;
+            this.bookingId = bookingId;
+            this.roomId = roomId;
+            this.nights = nights;
+            this.cost = cost;
+        }
+
+        public static Line of(Booking booking) {
+            long nights = ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+            return new Line(booking.getId(), booking.getRoom().getId(), nights, nights * booking.getRoom().getPrice());
+        }
+
+        /**
+         * The same line, tagged with the property it came from.
+         */
+        public Line atProperty(int propertyId) {
+            return new Line(propertyId, bookingId, roomId, nights, cost);
+        }
+
+        /**
+         * The property the booking was made at, or null for a single hotel.
+         */
+        public Integer getPropertyId() {
+            return propertyId;
+        }
+
+        public int getBookingId() {
+            return bookingId;
+        }
+
+        public int getRoomId() {
+            return roomId;
+        }
+
+        public long getNights() {
+            return nights;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+    }
+}
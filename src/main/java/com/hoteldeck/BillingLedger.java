@@ -0,0 +1,131 @@
+package com.hoteldeck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Each customer's booking IDs in ID order, kept up to date by {@link EntityStore} as bookings
+ * are added and removed, so a bill costs O(that customer's bookings) rather than a scan of
+ * every booking in the hotel. The bookings themselves are looked up in {@link BookingColumns}
+ * when a bill is made; callers hold the store's read lock for that.
+ *
+ * <p>Lines are priced when the bill is made, so a bill always reflects the current room price.
+ * Bookings stay filed under their customer ID even if the customer is deleted, as they
+ * stay in the bookings table.
+ */
+public class BillingLedger {
+    private final BookingColumns bookings;
+    private final IntMap<SortedIntSet> byCustomer = new IntMap<>();
+    // Bookings come and go under the store's read lock and a stripe lock, so many threads
+    // can change the ledger at once; its own write lock guards changes, its read lock bills
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BillingLedger(BookingColumns bookings) {
+        this.bookings = bookings;
+    }
+
+    void add(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            int customerId = booking.getCustomer().getId();
+            SortedIntSet ids = byCustomer.get(customerId);
+            if (ids == null) {
+                ids = new SortedIntSet();
+                byCustomer.put(customerId, ids);
+            }
+            ids.add(booking.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            int customerId = booking.getCustomer().getId();
+            SortedIntSet ids = byCustomer.get(customerId);
+            if (ids != null && ids.remove(booking.getId()) && ids.isEmpty()) {
+                byCustomer.remove(customerId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * True if bookings are still filed under the customer ID.
+     */
+    public boolean hasBookings(int customerId) {
+        lock.readLock().lock();
+        try {
+            return byCustomer.containsKey(customerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The customer's bookings in ID order.
+     */
+    public List<Booking> bookingsOf(int customerId) {
+        lock.readLock().lock();
+        try {
+            SortedIntSet ids = byCustomer.get(customerId);
+            return ids == null ? new ArrayList<>() : bookings.get(ids.toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} of the customer's booking IDs greater than {@code afterId}, in ID order.
+     */
+    public int[] bookingIdsAfter(int customerId, int afterId, int max) {
+        lock.readLock().lock();
+        try {
+            SortedIntSet ids = byCustomer.get(customerId);
+            return ids == null ? new int[0] : ids.after(afterId, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Bill bill(Customer customer) {
+        lock.readLock().lock();
+        try {
+            return billLocked(customer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bills every customer in one parallel pass and returns the non-empty bills in the
+     * customers' order. All bills see the same moment: bookings wait until the pass is done.
+     */
+    public List<Bill> billAll(List<Customer> customers) {
+        lock.readLock().lock();
+        try {
+            // The workers read under this thread's read lock; no booking can change until it is released
+            return customers.parallelStream()
+                    .map(this::billLocked)
+                    .filter(bill -> !bill.isEmpty())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Bill billLocked(Customer customer) {
+        SortedIntSet ids = byCustomer.get(customer.getId());
+        if (ids == null) {
+            return new Bill(customer, List.of());
+        }
+        List<Bill.Line> lines = new ArrayList<>(ids.size());
+        for (Booking booking : bookings.get(ids.toArray())) {
+            lines.add(Bill.Line.of(booking));
+        }
+        return new Bill(customer, lines);
+    }
+}
@@ -0,0 +1,261 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The whole hotel in one binary file, read back with a single pass over a memory mapping.
+ * Strings are stored once in a string table and referenced by index, dates as epoch days,
+ * and every record of a table has the same width.
+ *
+ * <pre>
+ * header     int magic "HDSN", int version, int header bytes, int string count,
+ *            then count and record bytes for customers, rooms and bookings
+ * strings    per string: int UTF-8 byte length, bytes
+ * customers  int id, int name, int email, int phone          (string indexes, -1 = null)
+ * rooms      int id, int type, double price
+ * bookings   int id, int room id, int customer id, int check-in day, int check-out day
+ * </pre>
+ *
+ * All numbers are little-endian. The version changes only when existing fields change
+ * meaning; a newer writer may lengthen the header or append fields to a record, and this
+ * reader skips what it does not know by the widths in the header.
+ *
+ * <p>If the file does not exist yet, {@link #load} imports the CSV files in the same
+ * directory and writes the binary snapshot from them.
+ */
+public class BinarySnapshot implements Snapshot {
+    public static final String SNAPSHOT_FILE = "hoteldeck.snapshot";
+    static final int MAGIC = 'H' | 'D' << 8 | 'S' << 16 | 'N' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final int CUSTOMER_BYTES = 16;
+    static final int ROOM_BYTES = 16;
+    static final int BOOKING_BYTES = 20;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE =
+            ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final CsvSnapshot csv;
+    private final HotelMetrics metrics;
+
+    public BinarySnapshot(Path dir) {
+        this(dir, null);
+    }
+
+    /**
+     * @param metrics where snapshot writes are timed, or null
+     */
+    public BinarySnapshot(Path dir, HotelMetrics metrics) {
+        this.file = dir.resolve(SNAPSHOT_FILE);
+        this.csv = new CsvSnapshot(dir, metrics);
+        this.metrics = metrics;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        if (!Files.exists(file)) {
+            importCsv(store);
+            return;
+        }
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        long rows = 0;
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (data.byteSize() < HEADER_BYTES || data.get(INT, 0) != MAGIC) {
+                System.out.println("Error loading snapshot: " + file + " is not a Hotel Deck snapshot.");
+                return;
+            }
+            int version = data.get(INT, 4);
+            if (version > VERSION) {
+                System.out.println("Error loading snapshot: format version " + version +
+                        " was written by a newer Hotel Deck.");
+                return;
+            }
+            long offset = data.get(INT, 8);
+            String[] strings = new String[data.get(INT, 12)];
+            int customerCount = data.get(INT, 16);
+            int customerBytes = data.get(INT, 20);
+            int roomCount = data.get(INT, 24);
+            int roomBytes = data.get(INT, 28);
+            int bookingCount = data.get(INT, 32);
+            int bookingBytes = data.get(INT, 36);
+
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int length = data.get(INT, offset);
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                MemorySegment.copy(data, ValueLayout.JAVA_BYTE, offset + 4, scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                offset += 4 + length;
+            }
+            for (int i = 0; i < customerCount; i++, offset += customerBytes) {
+                store.putCustomer(new Customer(data.get(INT, offset), string(strings, data.get(INT, offset + 4)),
+                        string(strings, data.get(INT, offset + 8)), string(strings, data.get(INT, offset + 12))));
+            }
+            for (int i = 0; i < roomCount; i++, offset += roomBytes) {
+                store.putRoom(new Room(data.get(INT, offset), string(strings, data.get(INT, offset + 4)),
+                        data.get(DOUBLE, offset + 8)));
+            }
+            // Stays share their LocalDate instances; most bookings start on a day another one does
+            IntMap<LocalDate> days = new IntMap<>();
+            for (int i = 0; i < bookingCount; i++, offset += bookingBytes) {
+                Room room = store.bookedRoom(data.get(INT, offset + 4));
+                Customer customer = store.bookedCustomer(data.get(INT, offset + 8));
+                Booking booking = new Booking(data.get(INT, offset), room, customer,
+                        day(days, data.get(INT, offset + 12)), day(days, data.get(INT, offset + 16)));
+                if (!store.putBooking(booking)) {
+                    System.out.println("Skipping booking " + booking.getId() + ": overlaps another stay in room " +
+                            room.getId());
+                }
+            }
+            rows = (long) customerCount + roomCount + bookingCount;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            System.out.println("Error loading snapshot: " + e.getMessage());
+        }
+        event.finish("binarySnapshot", file, rows);
+    }
+
+    // First start in binary format: load the CSV files and convert them straight away
+    private void importCsv(EntityStore store) {
+        csv.load(store);
+        if (store.customers().isEmpty() && store.rooms().isEmpty()) return;
+        try {
+            save(store.customers().ordered(), store.rooms().ordered(), store.bookings().list());
+        } catch (IOException e) {
+            System.out.println("Error saving snapshot: " + e.getMessage());
+        }
+    }
+
+    private static String string(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static LocalDate day(IntMap<LocalDate> days, int epochDay) {
+        LocalDate date = days.get(epochDay);
+        if (date == null) {
+            date = LocalDate.ofEpochDay(epochDay);
+            days.put(epochDay, date);
+        }
+        return date;
+    }
+
+    @Override
+    public void save(List<Customer> customers, List<Room> rooms, List<Booking> bookings) throws IOException {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] customerStrings = new int[customers.size() * 3];
+        for (int i = 0; i < customers.size(); i++) {
+            Customer c = customers.get(i);
+            customerStrings[3 * i] = intern(c.getName(), indexes, strings);
+            customerStrings[3 * i + 1] = intern(c.getEmail(), indexes, strings);
+            customerStrings[3 * i + 2] = intern(c.getPhoneNumber(), indexes, strings);
+        }
+        int[] roomTypes = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            roomTypes[i] = intern(rooms.get(i).getType(), indexes, strings);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long bytes;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(HEADER_BYTES).putInt(strings.size())
+                    .putInt(customers.size()).putInt(CUSTOMER_BYTES)
+                    .putInt(rooms.size()).putInt(ROOM_BYTES)
+                    .putInt(bookings.size()).putInt(BOOKING_BYTES);
+            for (byte[] s : strings) {
+                ensure(channel, out, 4);
+                out.putInt(s.length);
+                if (s.length > out.remaining()) {
+                    drain(channel, out);
+                    ByteBuffer large = ByteBuffer.wrap(s);
+                    while (large.hasRemaining()) {
+                        channel.write(large);
+                    }
+                } else {
+                    out.put(s);
+                }
+            }
+            for (int i = 0; i < customers.size(); i++) {
+                ensure(channel, out, CUSTOMER_BYTES);
+                out.putInt(customers.get(i).getId()).putInt(customerStrings[3 * i])
+                        .putInt(customerStrings[3 * i + 1]).putInt(customerStrings[3 * i + 2]);
+            }
+            for (int i = 0; i < rooms.size(); i++) {
+                Room r = rooms.get(i);
+                ensure(channel, out, ROOM_BYTES);
+                out.putInt(r.getId()).putInt(roomTypes[i]).putDouble(r.getPrice());
+            }
+            for (Booking b : bookings) {
+                ensure(channel, out, BOOKING_BYTES);
+                out.putInt(b.getId()).putInt(b.getRoom().getId()).putInt(b.getCustomer().getId())
+                        .putInt(RoomSchedule.epochDay(b.getCheckInDate()))
+                        .putInt(RoomSchedule.epochDay(b.getCheckOutDate()));
+            }
+            drain(channel, out);
+            channel.force(false);
+            bytes = channel.size();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (metrics != null) {
+            metrics.record(Operation.SAVE_BINARY_SNAPSHOT, started, bytes);
+        }
+        event.finish(Operation.SAVE_BINARY_SNAPSHOT, file, bytes);
+    }
+
+    private static int intern(String s, Map<String, Integer> indexes, List<byte[]> strings) {
+        if (s == null) return -1;
+        Integer index = indexes.get(s);
+        if (index == null) {
+            index = strings.size();
+            indexes.put(s, index);
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private static void ensure(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            drain(channel, out);
+        }
+    }
+
+    // Writes out everything put into the buffer so far and empties it for reuse
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
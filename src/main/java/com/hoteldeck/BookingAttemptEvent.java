@@ -0,0 +1,60 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to {@link HotelDeck#bookRoom} or {@link HotelDeck#bookRooms}, from validation to
+ * the persistence callback, with whether it was committed or why it was rejected.
+ */
+@Name("com.hoteldeck.BookingAttempt")
+@Label("Booking Attempt")
+@Category({"Hotel Deck", "Bookings"})
+@Description("A booking request and its outcome")
+@StackTrace(false)
+public class BookingAttemptEvent extends jdk.jfr.Event {
+    @Label("Room ID")
+    @Description("The room booked, or the first room of a group")
+    int roomId;
+
+    @Label("Rooms")
+    int rooms;
+
+    @Label("Customer ID")
+    int customerId;
+
+    @Label("Check-in")
+    String checkIn;
+
+    @Label("Nights")
+    int nights;
+
+    @Label("Committed")
+    boolean committed;
+
+    @Label("Status")
+    @Description("OK, INVALID, NOT_FOUND or CONFLICT")
+    String status;
+
+    /**
+     * Ends the event with the request's outcome and commits it, if the event is enabled.
+     */
+    void finish(Result<?> result, int customerId, int roomId, int rooms, LocalDate checkIn, LocalDate checkOut) {
+        end();
+        if (shouldCommit()) {
+            this.roomId = roomId;
+            this.rooms = rooms;
+            this.customerId = customerId;
+            this.checkIn = String.valueOf(checkIn);
+            this.nights = checkIn == null || checkOut == null ? 0
+                    : RoomSchedule.epochDay(checkOut) - RoomSchedule.epochDay(checkIn);
+            this.committed = result.isSuccess();
+            this.status = result.getStatus().name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The bookings table as five int columns (ID, room ID, customer ID, check-in and check-out
+ * epoch days) in booking ID order, found by binary search on the ID column. {@link Booking}
+ * objects are built on demand when a caller asks for one and are not kept; the other booking
+ * indexes hold booking IDs and come back here to turn them into bookings.
+ *
+ * <p>Heap per booking, measured as live heap after loading 453,214 bookings: about 100 bytes
+ * when every index held a reference to a long-lived {@code Booking} object (the object, its
+ * table entries and one reference per index; bookings made at runtime also carried two
+ * unshared {@code LocalDate}s, another 48 bytes). Now about 61 bytes: 20 bytes of columns
+ * here, 4 bytes per ID in the room schedule, the billing ledger and both date buckets, and
+ * the rest array growth slack. The room schedule has since added 4 more per ID, to keep its
+ * IDs in ID order for paging.
+ *
+ * <p>A cancelled row stays in place, marked in a bit set, so that the ID column stays
+ * sorted without shifting; the columns are compacted once more than half the rows are
+ * cancelled. A booking is built with the room and customer that currently have its IDs, or
+ * the one retired under that ID if it was deleted while the booking stayed. Callers hold the
+ * store's read or write lock so that those tables do not change underneath; the columns
+ * themselves are guarded by their own lock, as bookings are made under the read lock.
+ */
+public class BookingColumns {
+    private final EntityTable<Room> rooms;
+    private final EntityTable<Customer> customers;
+    // Deleted rooms and customers that bookings still refer to; changed under the store's write lock
+    private final IntMap<Room> retiredRooms = new IntMap<>();
+    private final IntMap<Customer> retiredCustomers = new IntMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] ids = new int[64];
+    private int[] roomIds = new int[64];
+    private int[] customerIds = new int[64];
+    private int[] checkIns = new int[64];
+    private int[] checkOuts = new int[64];
+    private final BitSet cancelled = new BitSet();
+    private int rows;
+    private int live;
+
+    public BookingColumns(EntityTable<Room> rooms, EntityTable<Customer> customers) {
+        this.rooms = rooms;
+        this.customers = customers;
+    }
+
+    private int search(int id) {
+        return Arrays.binarySearch(ids, 0, rows, id);
+    }
+
+    /**
+     * Stores the booking, replacing any booking with the same ID.
+     */
+    void put(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            int r = search(booking.getId());
+            if (r >= 0) {
+                if (cancelled.get(r)) {
+                    cancelled.clear(r);
+                    live++;
+                }
+            } else {
+                r = insertRow(-(r + 1), booking.getId());
+                live++;
+            }
+            roomIds[r] = booking.getRoom().getId();
+            customerIds[r] = booking.getCustomer().getId();
+            checkIns[r] = RoomSchedule.epochDay(booking.getCheckInDate());
+            checkOuts[r] = RoomSchedule.epochDay(booking.getCheckOutDate());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // IDs are handed out in increasing order, so nearly every insert is an append
+    private int insertRow(int r, int id) {
+        if (rows == ids.length) {
+            int capacity = rows + (rows >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            roomIds = Arrays.copyOf(roomIds, capacity);
+            customerIds = Arrays.copyOf(customerIds, capacity);
+            checkIns = Arrays.copyOf(checkIns, capacity);
+            checkOuts = Arrays.copyOf(checkOuts, capacity);
+        }
+        int tail = rows - r;
+        if (tail > 0) {
+            System.arraycopy(ids, r, ids, r + 1, tail);
+            System.arraycopy(roomIds, r, roomIds, r + 1, tail);
+            System.arraycopy(customerIds, r, customerIds, r + 1, tail);
+            System.arraycopy(checkIns, r, checkIns, r + 1, tail);
+            System.arraycopy(checkOuts, r, checkOuts, r + 1, tail);
+            for (int i = cancelled.previousSetBit(rows - 1); i >= r; i = cancelled.previousSetBit(i - 1)) {
+                cancelled.clear(i);
+                cancelled.set(i + 1);
+            }
+        }
+        ids[r] = id;
+        rows++;
+        return r;
+    }
+
+    /**
+     * Removes the booking and returns it, or null if there is none with this ID.
+     */
+    Booking remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int r = search(id);
+            if (r < 0 || cancelled.get(r)) return null;
+            Booking booking = materialize(r);
+            cancelled.set(r);
+            live--;
+            if (rows > 1024 && live < rows / 2) {
+                compact();
+            }
+            return booking;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact() {
+        int to = 0;
+        for (int r = 0; r < rows; r++) {
+            if (cancelled.get(r)) continue;
+            ids[to] = ids[r];
+            roomIds[to] = roomIds[r];
+            customerIds[to] = customerIds[r];
+            checkIns[to] = checkIns[r];
+            checkOuts[to] = checkOuts[r];
+            to++;
+        }
+        rows = to;
+        cancelled.clear();
+    }
+
+    private Booking materialize(int r) {
+        Room room = rooms.get(roomIds[r]);
+        if (room == null) {
+            room = retiredRooms.get(roomIds[r]);
+        }
+        Customer customer = customers.get(customerIds[r]);
+        if (customer == null) {
+            customer = retiredCustomers.get(customerIds[r]);
+        }
+        return new Booking(ids[r], room, customer, LocalDate.ofEpochDay(checkIns[r]), LocalDate.ofEpochDay(checkOuts[r]));
+    }
+
+    public Booking get(int id) {
+        lock.readLock().lock();
+        try {
+            int r = search(id);
+            return r < 0 || cancelled.get(r) ? null : materialize(r);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            int r = search(id);
+            return r >= 0 && !cancelled.get(r);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The bookings with the given IDs, in the order given, skipping any that are gone.
+     */
+    public List<Booking> get(int[] bookingIds) {
+        List<Booking> result = new ArrayList<>(bookingIds.length);
+        lock.readLock().lock();
+        try {
+            for (int id : bookingIds) {
+                int r = search(id);
+                if (r >= 0 && !cancelled.get(r)) {
+                    result.add(materialize(r));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Every booking in ID order, built fresh.
+     */
+    public List<Booking> list() {
+        lock.readLock().lock();
+        try {
+            List<Booking> result = new ArrayList<>(live);
+            for (int r = cancelled.nextClearBit(0); r < rows; r = cancelled.nextClearBit(r + 1)) {
+                result.add(materialize(r));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} bookings in ID order, starting after the given booking ID (or from
+     * the first booking if it is null). Walks at most {@code limit + 1} rows.
+     */
+    public Page<Booking> page(Integer afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int start = 0;
+            if (afterId != null) {
+                int r = search(afterId);
+                start = r >= 0 ? r + 1 : -(r + 1);
+            }
+            List<Booking> items = new ArrayList<>(Math.min(limit, rows - start));
+            for (int r = cancelled.nextClearBit(start); r < rows; r = cancelled.nextClearBit(r + 1)) {
+                if (items.size() == limit) {
+                    return new Page<>(items, items.get(limit - 1).getId());
+                }
+                items.add(materialize(r));
+            }
+            return new Page<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} bookings from {@code candidateIds}, which are in ID order and all
+     * after the cursor, such as a customer's IDs from the billing ledger or a room's from its
+     * schedule. Each candidate is found by binary search and checked against {@code roomId}
+     * on the columns, so only the bookings on the page are built and the table is never scanned.
+     *
+     * @param roomId only this room's bookings, or null if the candidates need no further filter
+     */
+    public Page<Booking> page(int[] candidateIds, int limit, Integer roomId) {
+        lock.readLock().lock();
+        try {
+            List<Booking> items = new ArrayList<>(Math.min(limit, candidateIds.length));
+            for (int id : candidateIds) {
+                int r = search(id);
+                if (r < 0 || cancelled.get(r)) continue;
+                if (roomId != null && roomIds[r] != roomId) continue;
+                if (items.size() == limit) {
+                    return new Page<>(items, items.get(limit - 1).getId());
+                }
+                items.add(materialize(r));
+            }
+            return new Page<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Keeps a deleted room around for the bookings that still refer to it.
+     */
+    void retireRoom(Room room) {
+        retiredRooms.put(room.getId(), room);
+    }
+
+    void retireCustomer(Customer customer) {
+        retiredCustomers.put(customer.getId(), customer);
+    }
+
+    Room retiredRoom(int id) {
+        return retiredRooms.get(id);
+    }
+
+    Customer retiredCustomer(int id) {
+        return retiredCustomers.get(id);
+    }
+}
@@ -0,0 +1,102 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bookings ordered by check-in day and by check-out day, kept up to date by
+ * {@link EntityStore}. Each day with arrivals or departures has one bucket, in booking ID
+ * order, so the arrivals or departures of a day or a date range cost O(log days + k).
+ * Buckets hold booking IDs, looked up in {@link BookingColumns} on the way out under the
+ * caller's store read lock.
+ */
+public class BookingDateIndex {
+    private final BookingColumns bookings;
+    private final TreeMap<Integer, SortedIntSet> byCheckIn = new TreeMap<>();
+    private final TreeMap<Integer, SortedIntSet> byCheckOut = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BookingDateIndex(BookingColumns bookings) {
+        this.bookings = bookings;
+    }
+
+    void add(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            insert(byCheckIn, RoomSchedule.epochDay(booking.getCheckInDate()), booking);
+            insert(byCheckOut, RoomSchedule.epochDay(booking.getCheckOutDate()), booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            delete(byCheckIn, RoomSchedule.epochDay(booking.getCheckInDate()), booking);
+            delete(byCheckOut, RoomSchedule.epochDay(booking.getCheckOutDate()), booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void insert(TreeMap<Integer, SortedIntSet> index, int day, Booking booking) {
+        index.computeIfAbsent(day, d -> new SortedIntSet()).add(booking.getId());
+    }
+
+    private static void delete(TreeMap<Integer, SortedIntSet> index, int day, Booking booking) {
+        SortedIntSet bucket = index.get(day);
+        if (bucket != null && bucket.remove(booking.getId()) && bucket.isEmpty()) {
+            index.remove(day);
+        }
+    }
+
+    /**
+     * Bookings checking in on the day, in ID order.
+     */
+    public List<Booking> arrivals(LocalDate day) {
+        return arrivals(day, day.plusDays(1));
+    }
+
+    /**
+     * Bookings checking out on the day, in ID order.
+     */
+    public List<Booking> departures(LocalDate day) {
+        return departures(day, day.plusDays(1));
+    }
+
+    /**
+     * Bookings checking in on days {@code [from, to)}, by day and then ID.
+     */
+    public List<Booking> arrivals(LocalDate from, LocalDate to) {
+        return collect(byCheckIn, from, to);
+    }
+
+    /**
+     * Bookings checking out on days {@code [from, to)}, by day and then ID.
+     */
+    public List<Booking> departures(LocalDate from, LocalDate to) {
+        return collect(byCheckOut, from, to);
+    }
+
+    private List<Booking> collect(TreeMap<Integer, SortedIntSet> index, LocalDate from, LocalDate to) {
+        List<Booking> result = new ArrayList<>();
+        int in = RoomSchedule.epochDay(from);
+        int out = RoomSchedule.epochDay(to);
+        if (out <= in) return result;
+        lock.readLock().lock();
+        try {
+            NavigableMap<Integer, SortedIntSet> days = index.subMap(in, true, out, false);
+            for (SortedIntSet bucket : days.values()) {
+                result.addAll(bookings.get(bucket.toArray()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hoteldeck;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a byte range of Booking.csv on a fork/join pool. Ranges above {@link #LEAF_BYTES}
+ * are halved at a row boundary and parsed in parallel; the result lists the parsed rows
+ * chunk by chunk in file order.
+ *
+ * <p>Rows are kept as IDs and dates only. Rooms and customers are looked up afterwards on
+ * one thread, when the stays are added to the store in file order, so which of two
+ * overlapping bookings wins is the same as with a sequential load.
+ */
+final class BookingParseTask extends RecursiveTask<List<BookingParseTask.Rows>> {
+    static final long LEAF_BYTES = 1 << 20;
+    private static final long serialVersionUID = 1L;
+
+    private final transient MappedCsvReader file;
+    private final long from;
+    private final long to;
+
+    BookingParseTask(MappedCsvReader file, long from, long to) {
+        this.file = file;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected List<Rows> compute() {
+        if (to - from > LEAF_BYTES) {
+            long mid = file.rowStartAtOrAfter(from + (to - from) / 2);
+            if (mid > from && mid < to) {
+                BookingParseTask right = new BookingParseTask(file, mid, to);
+                right.fork();
+                List<Rows> result = new BookingParseTask(file, from, mid).compute();
+                result.addAll(right.join());
+                return result;
+            }
+        }
+        List<Rows> result = new ArrayList<>();
+        result.add(parse());
+        return result;
+    }
+
+    private Rows parse() {
+        Rows rows = new Rows((int) Math.min(Integer.MAX_VALUE, (to - from) / 32 + 1));
+        try (MappedCsvReader reader = file.range(from, to)) {
+            while (reader.nextRow()) {
+                if (reader.fieldCount() < 5) continue;
+                rows.add(reader.nextInt(), reader.nextInt(), reader.nextInt(), reader.nextDate(), reader.nextDate());
+            }
+        } catch (NumberFormatException | DateTimeException e) {
+            // Rows before the bad one still load, as they would have sequentially
+            rows.error = e;
+        }
+        return rows;
+    }
+
+    /**
+     * Booking rows of one chunk in columns, plus the error that ended the chunk early, if any.
+     */
+    static final class Rows {
+        int size;
+        int[] ids;
+        int[] roomIds;
+        int[] customerIds;
+        LocalDate[] checkIns;
+        LocalDate[] checkOuts;
+        RuntimeException error;
+
+        Rows(int capacity) {
+            ids = new int[capacity];
+            roomIds = new int[capacity];
+            customerIds = new int[capacity];
+            checkIns = new LocalDate[capacity];
+            checkOuts = new LocalDate[capacity];
+        }
+
+        private void add(int id, int roomId, int customerId, LocalDate checkIn, LocalDate checkOut) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                roomIds = Arrays.copyOf(roomIds, capacity);
+                customerIds = Arrays.copyOf(customerIds, capacity);
+                checkIns = Arrays.copyOf(checkIns, capacity);
+                checkOuts = Arrays.copyOf(checkOuts, capacity);
+            }
+            ids[size] = id;
+            roomIds[size] = roomId;
+            customerIds[size] = customerId;
+            checkIns[size] = checkIn;
+            checkOuts[size] = checkOut;
+            size++;
+        }
+    }
+}
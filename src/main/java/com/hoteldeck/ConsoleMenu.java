@@ -0,0 +1,524 @@
+package com.hoteldeck;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Interactive console front end: prompts for input, calls {@link HotelDeck} and prints
+ * the outcome. Holds no state of its own besides the scanner, and the buffered writer that
+ * listings stream their rows through a page at a time.
+ */
+public class ConsoleMenu {
+    private static final int PAGE_SIZE = 20;
+
+    private final HotelDeck hotel;
+    private final Scanner scanner;
+    private final PrintWriter out = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, System.out.charset()), 1 << 16));
+
+    public ConsoleMenu(HotelDeck hotel, Scanner scanner) {
+        this.hotel = hotel;
+        this.scanner = scanner;
+    }
+
+    // Reads an int on its own line; returns null and prints the message if it is not one
+    private Integer promptInt(String prompt, String error) {
+        System.out.print(prompt);
+        try {
+            return Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println(error);
+            return null;
+        }
+    }
+
+    /**
+     * Lists a table a page at a time, from an ID the user picks. Each page comes from the
+     * table's ID order through {@code fetch}, given the ID to start after, and its rows are
+     * written through one buffered writer that is flushed before asking for the next page.
+     */
+    private <T> void listPages(String empty, Function<Integer, Page<T>> fetch, BiConsumer<PrintWriter, T> row) {
+        System.out.print("Start after ID (Enter for the beginning): ");
+        String start = scanner.nextLine().trim();
+        Integer after;
+        try {
+            after = start.isEmpty() ? null : Integer.valueOf(start);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input. Please enter a valid integer for ID.");
+            return;
+        }
+
+        Page<T> page = fetch.apply(after);
+        if (page.getItems().isEmpty()) {
+            System.out.println(empty);
+            return;
+        }
+        while (true) {
+            for (T item : page.getItems()) {
+                row.accept(out, item);
+            }
+            out.flush();
+            if (!page.hasNext()) return;
+            System.out.print("Press Enter for the next page, or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) return;
+            page = fetch.apply(page.getNextAfter());
+        }
+    }
+
+    private String promptName(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String name = scanner.nextLine();
+            if (HotelDeck.isValidName(name)) {
+                return name;
+            }
+            System.out.println("Invalid name. Only alphabets and spaces allowed.");
+        }
+    }
+
+    private String promptEmail(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String email = scanner.nextLine();
+            if (HotelDeck.isValidEmail(email)) {
+                return email;
+            }
+            System.out.println("Invalid email format.");
+        }
+    }
+
+    private String promptPhone(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String phone = scanner.nextLine();
+            if (HotelDeck.isValidPhone(phone)) {
+                return phone;
+            }
+            System.out.println("Phone number must be 10 digits.");
+        }
+    }
+
+    public void addCustomer() {
+        int id;
+        while (true) {
+            Integer input = promptInt("Enter customer ID: ", "Invalid input. Please enter a valid integer for ID.");
+            if (input == null) {
+                continue;
+            }
+            if (hotel.findCustomerById(input) != null) {
+                System.out.println("Customer ID already exists!");
+                continue;
+            }
+            id = input;
+            break;
+        }
+
+        String name = promptName("Enter customer name: ");
+        String email = promptEmail("Enter customer email: ");
+        String phone = promptPhone("Enter customer phone number: ");
+
+        Result<Customer> result = hotel.addCustomer(id, name, email, phone);
+        System.out.println(result.isSuccess() ? "Customer added successfully!" : result.getMessage());
+    }
+
+    public void viewCustomers() {
+        listPages("No customers found.", after -> hotel.customersPage(after, PAGE_SIZE, null), ConsoleMenu::writeCustomer);
+    }
+
+    private static void writeCustomer(PrintWriter w, Customer c) {
+        w.append("ID: ").print(c.getId());
+        w.append(", Name: ").append(c.getName()).append(", Email: ").append(c.getEmail())
+                .append(", Phone: ").println(c.getPhoneNumber());
+    }
+
+    public void searchCustomers() {
+        System.out.print("Enter email, phone number or the start of a name: ");
+        String text = scanner.nextLine().trim();
+        if (text.isEmpty()) {
+            System.out.println("Nothing to search for.");
+            return;
+        }
+
+        List<Customer> found;
+        if (text.contains("@")) {
+            found = hotel.findCustomersByEmail(text);
+        } else if (text.matches("[\\d ()+-]+")) {
+            found = hotel.findCustomersByPhone(text);
+        } else {
+            found = hotel.findCustomersByName(text, 20);
+        }
+        if (found.isEmpty()) {
+            System.out.println("No matching customers found.");
+            return;
+        }
+        for (Customer c : found) {
+            System.out.println("ID: " + c.getId() + ", Name: " + c.getName() +
+                    ", Email: " + c.getEmail() + ", Phone: " + c.getPhoneNumber());
+        }
+    }
+
+    public void updateCustomer() {
+        Integer id = promptInt("Enter customer ID to update: ", "Invalid input. Please enter a valid integer for ID.");
+        if (id == null) {
+            return;
+        }
+
+        Customer customerToUpdate = hotel.findCustomerById(id);
+        if (customerToUpdate == null) {
+            System.out.println("Customer with ID " + id + " not found.");
+            return;
+        }
+
+        String name = promptName("Enter new customer name (current: " + customerToUpdate.getName() + "): ");
+        String email = promptEmail("Enter new customer email (current: " + customerToUpdate.getEmail() + "): ");
+        String phone = promptPhone("Enter new customer phone number (current: " + customerToUpdate.getPhoneNumber() + "): ");
+
+        Result<Customer> result = hotel.updateCustomer(id, name, email, phone);
+        System.out.println(result.isSuccess() ? "Customer updated successfully!" : result.getMessage());
+    }
+
+    public void deleteCustomer() {
+        Integer id = promptInt("Enter customer ID to delete: ", "Invalid input. Please enter a valid integer for ID.");
+        if (id == null) {
+            return;
+        }
+
+        Result<Customer> result = hotel.deleteCustomer(id);
+        System.out.println(result.isSuccess() ? "Customer deleted successfully." : result.getMessage());
+    }
+
+    public void addRoom() {
+        Integer id = promptInt("Enter room ID: ", "Invalid input. Please enter a valid integer for ID.");
+        if (id == null) {
+            return;
+        }
+        if (hotel.findRoomById(id) != null) {
+            System.out.println("Room ID already exists!");
+            return;
+        }
+
+        String type;
+        while (true) {
+            System.out.print("Enter room type (Single/Double/Deluxe): ");
+            type = HotelDeck.normalizeRoomType(scanner.nextLine());
+            if (type != null) {
+                break;
+            }
+            System.out.println("Invalid room type. Please enter either 'Single', 'Double', or 'Deluxe'.");
+        }
+
+        double price;
+        while (true) {
+            System.out.print("Enter room price: ");
+            try {
+                price = Double.parseDouble(scanner.nextLine());
+                if (price <= 0) {
+                    System.out.println("Price must be positive.");
+                    continue;
+                }
+                break;
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid price. Please enter a valid number.");
+            }
+        }
+
+        Result<Room> result = hotel.addRoom(id, type, price);
+        System.out.println(result.isSuccess() ? "Room added successfully!" : result.getMessage());
+    }
+
+    public void viewRooms() {
+        LocalDate today = LocalDate.now();
+        listPages("No rooms found.", after -> hotel.roomsPage(after, PAGE_SIZE, null, 0, Double.MAX_VALUE), (w, room) -> {
+            w.append("Room ID: ").print(room.getId());
+            w.append(", Type: ").append(room.getType()).append(", Price: ").print(room.getPrice());
+            w.append(", Status: ").println(hotel.isOccupied(room.getId(), today) ? "Booked" : "Available");
+        });
+    }
+
+    public void deleteRoomById() {
+        Integer id = promptInt("Enter Room ID to delete: ", "Invalid Room ID format.");
+        if (id == null) {
+            return;
+        }
+
+        Result<Room> result = hotel.deleteRoom(id);
+        System.out.println(result.isSuccess() ? "Room deleted successfully." : result.getMessage());
+    }
+
+    // Prompts for a stay; returns {checkIn, checkOut}, or null after printing why the input was rejected
+    private LocalDate[] promptStayDates() {
+        return promptDateRange("Check-in Date", "Check-out Date", "Check-out must be after check-in.");
+    }
+
+    private LocalDate[] promptDateRange(String fromLabel, String toLabel, String orderError) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        LocalDate from;
+        LocalDate to;
+
+        try {
+            System.out.print("Enter " + fromLabel + " (yyyy-MM-dd): ");
+            from = LocalDate.parse(scanner.nextLine().trim(), formatter);
+            System.out.print("Enter " + toLabel + " (yyyy-MM-dd): ");
+            to = LocalDate.parse(scanner.nextLine().trim(), formatter);
+
+            if (!to.isAfter(from)) {
+                System.out.println(orderError);
+                return null;
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format.");
+            return null;
+        }
+        return new LocalDate[]{from, to};
+    }
+
+    private static void printRooms(List<Room> rooms) {
+        for (Room room : rooms) {
+            System.out.println("Room ID: " + room.getId() + ", Type: " + room.getType() + ", Price: " + room.getPrice());
+        }
+    }
+
+    public void filterRooms() {
+        System.out.print("Enter room type (Single/Double/Deluxe, blank for any): ");
+        String type = scanner.nextLine().trim();
+        System.out.print("Enter maximum price (blank for any): ");
+        String max = scanner.nextLine().trim();
+        double maxPrice;
+        try {
+            maxPrice = max.isEmpty() ? Double.MAX_VALUE : Double.parseDouble(max);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid price format.");
+            return;
+        }
+
+        List<Room> rooms = hotel.findRooms(type.isEmpty() ? null : type, 0, maxPrice, false);
+        if (rooms.isEmpty()) {
+            System.out.println("No matching rooms found.");
+            return;
+        }
+        printRooms(rooms);
+    }
+
+    public void findFreeRooms() {
+        System.out.print("Enter room type (Single/Double/Deluxe, blank for any): ");
+        String type = scanner.nextLine().trim();
+        LocalDate[] stay = promptStayDates();
+        if (stay == null) {
+            return;
+        }
+
+        List<Room> free = hotel.freeRooms(type.isEmpty() ? null : type, stay[0], stay[1]);
+        if (free.isEmpty()) {
+            System.out.println("No matching rooms are free for these dates.");
+            return;
+        }
+        printRooms(free);
+    }
+
+    public void bookRoom() {
+        LocalDate[] stay = promptStayDates();
+        if (stay == null) {
+            return;
+        }
+
+        List<Room> availableRooms = hotel.freeRooms(null, stay[0], stay[1]);
+        if (availableRooms.isEmpty()) {
+            System.out.println("No rooms are available for these dates.");
+            return;
+        }
+        System.out.println("Available rooms:");
+        printRooms(availableRooms);
+
+        Integer roomId = promptInt("Enter room ID: ", "Invalid input. Please enter a valid integer for ID.");
+        if (roomId == null) {
+            return;
+        }
+        Integer customerId = promptInt("Enter customer ID: ", "Invalid input. Please enter a valid integer for ID.");
+        if (customerId == null) {
+            return;
+        }
+
+        Result<Booking> result = hotel.bookRoom(roomId, customerId, stay[0], stay[1]);
+        if (!result.isSuccess()) {
+            System.out.println(result.getMessage());
+            return;
+        }
+
+        Bill.Line line = Bill.Line.of(result.getValue());
+        double price = result.getValue().getRoom().getPrice();
+        System.out.println("Room booked successfully!");
+        System.out.println("Bill: " + line.getNights() + " nights " + price + " = " + line.getCost());
+    }
+
+    public void bookGroup() {
+        LocalDate[] stay = promptStayDates();
+        if (stay == null) {
+            return;
+        }
+        Integer customerId = promptInt("Enter customer ID: ", "Invalid input. Please enter a valid integer for ID.");
+        if (customerId == null) {
+            return;
+        }
+        System.out.print("Enter room IDs separated by commas: ");
+        List<Integer> roomIds = new ArrayList<>();
+        try {
+            for (String id : scanner.nextLine().split(",")) {
+                if (!id.isBlank()) {
+                    roomIds.add(Integer.parseInt(id.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid room ID list.");
+            return;
+        }
+
+        long started = System.nanoTime();
+        Result<List<Booking>> result = hotel.bookRooms(roomIds, customerId, stay[0], stay[1]);
+        long nanos = System.nanoTime() - started;
+        if (!result.isSuccess()) {
+            System.out.println(result.getMessage() + " No rooms were booked.");
+            return;
+        }
+
+        List<Booking> booked = result.getValue();
+        double total = 0;
+        for (Booking b : booked) {
+            total += Bill.Line.of(b).getCost();
+        }
+        System.out.printf("Booked %d rooms in %.3f ms (%,d rooms/s).%n", booked.size(), nanos / 1e6,
+                booked.size() * 1_000_000_000L / Math.max(1, nanos));
+        System.out.println("Booking IDs " + booked.get(0).getId() + " to " + booked.get(booked.size() - 1).getId() +
+                ", total: " + total);
+    }
+
+    public void cancelBooking() {
+        Integer bookingId = promptInt("Enter booking ID to cancel: ", "Invalid input. Please enter a valid integer for ID.");
+        if (bookingId == null) {
+            return;
+        }
+
+        Result<Booking> result = hotel.cancelBooking(bookingId);
+        System.out.println(result.isSuccess() ? "Booking canceled." : result.getMessage());
+    }
+
+    public void viewBookings() {
+        listPages("No bookings found.", after -> hotel.bookingsPage(after, PAGE_SIZE, null, null), ConsoleMenu::writeBooking);
+    }
+
+    private void printBookings(List<Booking> bookings) {
+        for (Booking b : bookings) {
+            writeBooking(out, b);
+        }
+        out.flush();
+    }
+
+    private static void writeBooking(PrintWriter w, Booking b) {
+        w.append("Booking ID: ").print(b.getId());
+        w.append(", Room ID: ").print(b.getRoom().getId());
+        w.append(", Customer ID: ").print(b.getCustomer().getId());
+        w.append(", Check-in: ").print(b.getCheckInDate());
+        w.append(", Check-out: ").println(b.getCheckOutDate());
+    }
+
+    public void arrivalsAndDepartures() {
+        System.out.print("Enter date (yyyy-MM-dd): ");
+        LocalDate day;
+        try {
+            day = LocalDate.parse(scanner.nextLine().trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format.");
+            return;
+        }
+
+        List<Booking> arrivals = hotel.arrivals(day);
+        System.out.println("Arrivals on " + day + ": " + arrivals.size());
+        printBookings(arrivals);
+        List<Booking> departures = hotel.departures(day);
+        System.out.println("Departures on " + day + ": " + departures.size());
+        printBookings(departures);
+    }
+
+    public void generateBill() {
+        Integer customerId = promptInt("Enter Customer ID for bill generation: ", "Invalid Customer ID format.");
+        if (customerId == null) {
+            return;
+        }
+
+        Result<Bill> result = hotel.generateBill(customerId);
+        if (!result.isSuccess()) {
+            System.out.println(result.getMessage());
+            return;
+        }
+
+        Bill bill = result.getValue();
+        if (bill.isEmpty()) {
+            System.out.println("No bookings found for this customer.");
+            return;
+        }
+        for (Bill.Line line : bill.getLines()) {
+            System.out.println("Booking ID: " + line.getBookingId() + ", Room ID: " + line.getRoomId() +
+                    ", Stay: " + line.getNights() + " nights, Cost: " + line.getCost());
+        }
+        System.out.println("Total bill for Customer ID " + customerId + ": " + bill.getTotal());
+    }
+
+    public void generateAllBills() {
+        List<Bill> bills = hotel.generateAllBills();
+        if (bills.isEmpty()) {
+            System.out.println("No bookings to bill.");
+            return;
+        }
+        double total = 0;
+        for (Bill bill : bills) {
+            Customer c = bill.getCustomer();
+            System.out.println("Customer ID: " + c.getId() + ", Name: " + c.getName() + ", Bookings: " +
+                    bill.getLines().size() + ", Total: " + bill.getTotal());
+            total += bill.getTotal();
+        }
+        System.out.println("Billed " + bills.size() + " customers, grand total: " + total);
+    }
+
+    public void occupancyReport() {
+        LocalDate[] range = promptDateRange("Start Date", "End Date (exclusive)", "End date must be after start date.");
+        if (range == null) {
+            return;
+        }
+
+        List<OccupancyAnalytics.Summary> lines = hotel.occupancyByType(range[0], range[1]);
+        if (lines.isEmpty()) {
+            System.out.println("No rooms found.");
+            return;
+        }
+        int rooms = 0;
+        long nights = 0;
+        double revenue = 0;
+        for (OccupancyAnalytics.Summary line : lines) {
+            printSummary(line);
+            rooms += line.getRooms();
+            nights += line.getRoomNights();
+            revenue += line.getRevenue();
+        }
+        long available = (long) rooms * lines.get(0).getDays();
+        System.out.printf("All types: Rooms: %d, Room-nights: %d, Occupancy: %.1f%%, Revenue: %s%n", rooms, nights,
+                available == 0 ? 0.0 : 100.0 * nights / available, revenue);
+    }
+
+    private static void printSummary(OccupancyAnalytics.Summary line) {
+        System.out.printf("Type: %s, Rooms: %d, Room-nights: %d, Occupancy: %.1f%%, Revenue: %s%n", line.getType(),
+                line.getRooms(), line.getRoomNights(), 100 * line.getOccupancyRate(), line.getRevenue());
+    }
+
+    public void exit() {
+        hotel.close();
+        System.out.println("Data saved. Goodbye!");
+    }
+}
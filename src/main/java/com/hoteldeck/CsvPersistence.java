@@ -0,0 +1,150 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The original persistence behaviour: every change rewrites the affected CSV files in full.
+ * Rewrites are serialized so concurrent changes never interleave on the same temporary file.
+ */
+public class CsvPersistence implements Persistence {
+    private final CsvSnapshot snapshot;
+    private EntityStore store;
+    // While a batch is open, changes only mark the files they touch
+    private boolean batching;
+    private boolean customersDirty;
+    private boolean roomsDirty;
+    private boolean bookingsDirty;
+
+    public CsvPersistence(CsvSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        snapshot.load(store);
+    }
+
+    @Override
+    public void customerSaved(Customer customer) {
+        customersChanged();
+    }
+
+    @Override
+    public void customerDeleted(int customerId) {
+        customersChanged();
+    }
+
+    @Override
+    public void roomSaved(Room room) {
+        roomsChanged();
+    }
+
+    @Override
+    public void roomDeleted(int roomId) {
+        roomsChanged();
+    }
+
+    @Override
+    public void bookingSaved(Booking booking) {
+        bookingsChanged();
+    }
+
+    @Override
+    public void bookingsSaved(List<Booking> bookings) {
+        bookingsChanged();
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking) {
+        bookingsChanged();
+    }
+
+    private synchronized void customersChanged() {
+        if (batching) {
+            customersDirty = true;
+        } else {
+            saveCustomers();
+        }
+    }
+
+    private synchronized void roomsChanged() {
+        if (batching) {
+            roomsDirty = true;
+        } else {
+            saveRooms();
+        }
+    }
+
+    // Bookings also rewrite the rooms for their booked flag
+    private synchronized void bookingsChanged() {
+        if (batching) {
+            bookingsDirty = true;
+            roomsDirty = true;
+        } else {
+            saveBookings();
+            saveRooms();
+        }
+    }
+
+    @Override
+    public synchronized void beginBatch() {
+        batching = true;
+    }
+
+    /**
+     * Rewrites each file touched during the batch once, however many changes it saw.
+     */
+    @Override
+    public synchronized void endBatch() {
+        batching = false;
+        if (customersDirty) saveCustomers();
+        if (roomsDirty) saveRooms();
+        if (bookingsDirty) saveBookings();
+        customersDirty = false;
+        roomsDirty = false;
+        bookingsDirty = false;
+    }
+
+    @Override
+    public void flush() {
+        store.readLock().lock();
+        try {
+            saveCustomers();
+            saveRooms();
+            saveBookings();
+        } finally {
+            store.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private synchronized void saveCustomers() {
+        try {
+            snapshot.saveCustomers(store.customers().ordered());
+        } catch (IOException e) {
+            System.out.println("Error saving customers: " + e.getMessage());
+        }
+    }
+
+    private synchronized void saveRooms() {
+        try {
+            snapshot.saveRooms(store.rooms().ordered());
+        } catch (IOException e) {
+            System.out.println("Error saving room data to CSV: " + e.getMessage());
+        }
+    }
+
+    private synchronized void saveBookings() {
+        try {
+            snapshot.saveBookings(store.bookingsSnapshot());
+        } catch (IOException e) {
+            System.out.println("Error saving bookings: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.hoteldeck;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads and writes the three CSV files that make up a full snapshot of the hotel:
+ * customers.csv, Room.csv and Booking.csv in the data directory.
+ */
+public class CsvSnapshot implements Snapshot {
+    public static final String CUSTOMER_CSV = "customers.csv";
+    public static final String ROOM_CSV = "Room.csv";
+    public static final String BOOKING_CSV = "Booking.csv";
+
+    static final String CUSTOMER_HEADER = "id,name,email,phoneNumber";
+    static final String ROOM_HEADER = "id,type,price,isBooked";
+    static final String BOOKING_HEADER = "id,roomId,customerId,checkInDate,checkOutDate";
+
+    private final Path dir;
+    private final HotelMetrics metrics;
+
+    public CsvSnapshot(Path dir) {
+        this(dir, null);
+    }
+
+    /**
+     * @param metrics where file rewrites are timed, or null
+     */
+    public CsvSnapshot(Path dir, HotelMetrics metrics) {
+        this.dir = dir;
+        this.metrics = metrics;
+    }
+
+    public Path customerFile() {
+        return dir.resolve(CUSTOMER_CSV);
+    }
+
+    public Path roomFile() {
+        return dir.resolve(ROOM_CSV);
+    }
+
+    public Path bookingFile() {
+        return dir.resolve(BOOKING_CSV);
+    }
+
+    /**
+     * Loads all three files. customers.csv and Room.csv are parsed at the same time, customers
+     * on the common fork/join pool, and both are then added to the store on this thread, as
+     * the store's load path takes no locks; bookings follow, see {@link #loadBookings}.
+     */
+    @Override
+    public void load(EntityStore store) {
+        ForkJoinTask<List<Customer>> customers = ForkJoinPool.commonPool().submit(this::readCustomers);
+        List<Room> rooms = readRooms();
+        for (Customer customer : customers.join()) {
+            store.putCustomer(customer);
+        }
+        for (Room room : rooms) {
+            store.putRoom(room);
+        }
+        loadBookings(store);
+    }
+
+    /**
+     * Parses customers.csv; touches no shared state, so it can run on any thread.
+     */
+    public List<Customer> readCustomers() {
+        Path file = customerFile();
+        List<Customer> customers = new ArrayList<>();
+        if (!Files.exists(file)) return customers;
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        try (MappedCsvReader reader = new MappedCsvReader(file)) {
+            reader.nextRow(); // header
+            while (reader.nextRow()) {
+                if (reader.fieldCount() < 4) continue;
+                int id = reader.nextInt();
+                String name = reader.nextString();
+                String email = reader.nextString();
+                String phoneNumber = reader.nextString();
+                customers.add(new Customer(id, name, email, phoneNumber));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error loading customers: " + e.getMessage());
+        }
+        event.finish("customers", file, customers.size());
+        return customers;
+    }
+
+    /**
+     * Parses Room.csv; touches no shared state, so it can run on any thread.
+     */
+    public List<Room> readRooms() {
+        Path file = roomFile();
+        List<Room> rooms = new ArrayList<>();
+        if (!Files.exists(file)) return rooms;
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        try (MappedCsvReader reader = new MappedCsvReader(file)) {
+            reader.nextRow(); // header
+            while (reader.nextRow()) {
+                if (reader.fieldCount() < 4) continue;
+                int id = reader.nextInt();
+                String type = reader.nextSymbol();
+                double price = reader.nextDouble();
+                // The isBooked column is derived from the bookings on load, so its value is ignored
+                rooms.add(new Room(id, type, price));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error loading rooms: " + e.getMessage());
+        }
+        event.finish("rooms", file, rooms.size());
+        return rooms;
+    }
+
+    /**
+     * Parses the file in parallel byte ranges ({@link BookingParseTask}), then adds the stays
+     * in file order on this thread. Returns the number of booking rows read, including any
+     * that were skipped.
+     */
+    public int loadBookings(EntityStore store) {
+        Path file = bookingFile();
+        if (!Files.exists(file)) return 0;
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        int rows = 0;
+        try (MappedCsvReader reader = new MappedCsvReader(file, true)) {
+            reader.nextRow(); // header
+            List<BookingParseTask.Rows> chunks =
+                    ForkJoinPool.commonPool().invoke(new BookingParseTask(reader, reader.position(), reader.size()));
+            for (BookingParseTask.Rows chunk : chunks) {
+                for (int i = 0; i < chunk.size; i++) {
+                    rows++;
+                    Room room = store.bookedRoom(chunk.roomIds[i]);
+                    Customer customer = store.bookedCustomer(chunk.customerIds[i]);
+                    Booking booking = new Booking(chunk.ids[i], room, customer, chunk.checkIns[i], chunk.checkOuts[i]);
+                    if (!store.putBooking(booking)) {
+                        System.out.println("Skipping booking " + booking.getId() + ": overlaps another stay in room " +
+                                room.getId());
+                    }
+                }
+                if (chunk.error != null) {
+                    System.out.println("Error loading bookings: " + chunk.error.getMessage());
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading bookings: " + e.getMessage());
+        }
+        event.finish("bookings", file, rows);
+        return rows;
+    }
+
+    /**
+     * Writes all three files. Each file is written to a temporary sibling first and then
+     * moved over the old one, so a crash mid-write never leaves a truncated snapshot.
+     */
+    @Override
+    public void save(List<Customer> customers, List<Room> rooms, List<Booking> bookings) throws IOException {
+        saveCustomers(customers);
+        saveRooms(rooms);
+        saveBookings(bookings);
+    }
+
+    public void saveCustomers(List<Customer> customers) throws IOException {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        Path tmp = tempFor(customerFile());
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(CUSTOMER_HEADER);
+            writer.newLine();
+            for (Customer customer : customers) {
+                writer.write(formatCustomer(customer));
+                writer.newLine();
+            }
+        }
+        replace(tmp, customerFile());
+        written(Operation.SAVE_CUSTOMERS_CSV, started, event, customerFile());
+    }
+
+    public void saveRooms(List<Room> rooms) throws IOException {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        Path tmp = tempFor(roomFile());
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(ROOM_HEADER);
+            writer.newLine();
+            for (Room room : rooms) {
+                writer.write(formatRoom(room));
+                writer.newLine();
+            }
+        }
+        replace(tmp, roomFile());
+        written(Operation.SAVE_ROOMS_CSV, started, event, roomFile());
+    }
+
+    public void saveBookings(List<Booking> bookings) throws IOException {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        Path tmp = tempFor(bookingFile());
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(BOOKING_HEADER);
+            writer.newLine();
+            for (Booking booking : bookings) {
+                writer.write(formatBooking(booking));
+                writer.newLine();
+            }
+        }
+        replace(tmp, bookingFile());
+        written(Operation.SAVE_BOOKINGS_CSV, started, event, bookingFile());
+    }
+
+    private void written(Operation operation, long started, PersistenceWriteEvent event, Path file)
+            throws IOException {
+        long bytes = Files.size(file);
+        if (metrics != null) {
+            metrics.record(operation, started, bytes);
+        }
+        event.finish(operation, file, bytes);
+    }
+
+    private static Path tempFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static void replace(Path tmp, Path target) throws IOException {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Row formats, shared with the journal so both files use the same field layout
+
+    static String formatCustomer(Customer c) {
+        return c.getId() + "," + c.getName() + "," + c.getEmail() + "," + c.getPhoneNumber();
+    }
+
+    static String formatRoom(Room r) {
+        return r.getId() + "," + r.getType() + "," + r.getPrice() + "," + r.isBooked();
+    }
+
+    static String formatBooking(Booking b) {
+        return b.getId() + "," + b.getRoom().getId() + "," + b.getCustomer().getId() + "," +
+                b.getCheckInDate() + "," + b.getCheckOutDate();
+    }
+
+    static Customer parseCustomer(String[] parts, int from) {
+        int id = Integer.parseInt(parts[from].trim());
+        String name = parts[from + 1].trim();
+        String email = parts[from + 2].trim();
+        String phoneNumber = parts[from + 3].trim();
+        return new Customer(id, name, email, phoneNumber);
+    }
+
+    static Room parseRoom(String[] data, int from) {
+        int id = Integer.parseInt(data[from].trim());
+        String type = data[from + 1].trim();
+        double price = Double.parseDouble(data[from + 2].trim());
+        // The isBooked column is derived from the bookings on load, so its value is ignored
+        return new Room(id, type, price);
+    }
+
+    /**
+     * A booking whose room or customer was deleted refers to the retired one; see
+     * {@link EntityStore#bookedRoom}.
+     */
+    static Booking parseBooking(String[] data, int from, EntityStore store) {
+        int id = Integer.parseInt(data[from].trim());
+        int roomId = Integer.parseInt(data[from + 1].trim());
+        int customerId = Integer.parseInt(data[from + 2].trim());
+        LocalDate checkInDate = LocalDate.parse(data[from + 3].trim());
+        LocalDate checkOutDate = LocalDate.parse(data[from + 4].trim());
+        return new Booking(id, store.bookedRoom(roomId), store.bookedCustomer(customerId), checkInDate,
+                checkOutDate);
+    }
+}
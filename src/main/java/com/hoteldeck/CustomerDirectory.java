@@ -0,0 +1,121 @@
+package com.hoteldeck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Customers by email, by phone number and by name prefix, for front-desk searches that
+ * start from what the guest tells them rather than their ID. Kept up to date by
+ * {@link EntityStore}; like the entity tables it is changed under the store's write lock
+ * and read under its read lock.
+ *
+ * <p>Emails match case-insensitively and phone numbers on their digits only. Names are
+ * kept in a sorted map, so a prefix search costs O(log n + k) however many customers
+ * there are. Nothing here is unique: several customers may share an email, phone or name,
+ * and each key holds them in ID order.
+ */
+public class CustomerDirectory {
+    private static final Comparator<Customer> BY_ID = Comparator.comparingInt(Customer::getId);
+
+    private final Map<String, ArrayList<Customer>> byEmail = new HashMap<>();
+    private final Map<String, ArrayList<Customer>> byPhone = new HashMap<>();
+    private final TreeMap<String, ArrayList<Customer>> byName = new TreeMap<>();
+
+    static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String phoneKey(String phone) {
+        if (phone == null) return "";
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char ch = phone.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits.append(ch);
+            }
+        }
+        return digits.toString();
+    }
+
+    static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    void add(Customer customer) {
+        insert(byEmail, emailKey(customer.getEmail()), customer);
+        insert(byPhone, phoneKey(customer.getPhoneNumber()), customer);
+        insert(byName, nameKey(customer.getName()), customer);
+    }
+
+    /**
+     * Takes the customer out under its current email, phone and name, so call it before
+     * changing any of them.
+     */
+    void remove(Customer customer) {
+        delete(byEmail, emailKey(customer.getEmail()), customer);
+        delete(byPhone, phoneKey(customer.getPhoneNumber()), customer);
+        delete(byName, nameKey(customer.getName()), customer);
+    }
+
+    private static void insert(Map<String, ArrayList<Customer>> index, String key, Customer customer) {
+        ArrayList<Customer> list = index.computeIfAbsent(key, k -> new ArrayList<>(1));
+        int pos = Collections.binarySearch(list, customer, BY_ID);
+        if (pos >= 0) {
+            list.set(pos, customer);
+        } else {
+            list.add(-(pos + 1), customer);
+        }
+    }
+
+    private static void delete(Map<String, ArrayList<Customer>> index, String key, Customer customer) {
+        ArrayList<Customer> list = index.get(key);
+        if (list == null) return;
+        int pos = Collections.binarySearch(list, customer, BY_ID);
+        if (pos >= 0) {
+            list.remove(pos);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Customers with this email, ignoring case, in ID order.
+     */
+    public List<Customer> byEmail(String email) {
+        ArrayList<Customer> list = byEmail.get(emailKey(email));
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    /**
+     * Customers with this phone number, comparing digits only, in ID order.
+     */
+    public List<Customer> byPhone(String phone) {
+        ArrayList<Customer> list = byPhone.get(phoneKey(phone));
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    /**
+     * Up to {@code limit} customers whose name starts with the prefix, ignoring case,
+     * in name order and then ID order.
+     */
+    public List<Customer> byNamePrefix(String prefix, int limit) {
+        List<Customer> result = new ArrayList<>(Math.min(limit, 64));
+        String from = nameKey(prefix);
+        if (from.isEmpty() || limit <= 0) return result;
+        for (Map.Entry<String, ArrayList<Customer>> entry : byName.tailMap(from, true).entrySet()) {
+            if (!entry.getKey().startsWith(from)) break;
+            for (Customer customer : entry.getValue()) {
+                result.add(customer);
+                if (result.size() == limit) return result;
+            }
+        }
+        return result;
+    }
+}
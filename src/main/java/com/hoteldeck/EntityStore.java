@@ -0,0 +1,301 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory store behind {@link HotelDeck}: an {@link EntityTable} each for customers and
+ * rooms, with an int-keyed hash index for lookups and ID-ordered iteration for listings, and
+ * {@link BookingColumns} for bookings, which the booking indexes refer to by ID.
+ *
+ * <p>Locking: adding, changing or removing customers and rooms needs the write lock.
+ * Booking and cancelling need only the read lock plus the stripe lock of the room involved,
+ * so bookings for unrelated rooms proceed in parallel; the few structures shared by all
+ * rooms (the bookings table, the occupancy calendar, the room columns, the billing ledger,
+ * the date index and the analytics) are guarded by their own locks for the few instructions
+ * it takes to update them. Plain lookups need the read lock.
+ * Loading runs before the store is shared and takes no locks.
+ */
+public class EntityStore {
+    private final EntityTable<Customer> customers = new EntityTable<>(Customer::getId);
+    private final EntityTable<Room> rooms = new EntityTable<>(Room::getId);
+    private final RoomColumns roomColumns = new RoomColumns();
+    private final BookingColumns bookings = new BookingColumns(rooms, customers);
+    private final CustomerDirectory directory = new CustomerDirectory();
+    private final AvailabilityIndex availability = new AvailabilityIndex();
+    private final OccupancyCalendar calendar = new OccupancyCalendar();
+    private final BillingLedger ledger = new BillingLedger(bookings);
+    private final BookingDateIndex bookingDates = new BookingDateIndex(bookings);
+    private final OccupancyAnalytics analytics = new OccupancyAnalytics();
+    private final AtomicInteger nextBookingId = new AtomicInteger(1);
+
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] roomStripes;
+
+    public EntityStore() {
+        int stripes = Integer.highestOneBit(Math.max(64, Runtime.getRuntime().availableProcessors() * 16) - 1) << 1;
+        roomStripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            roomStripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantReadWriteLock.ReadLock readLock() {
+        return structureLock.readLock();
+    }
+
+    public ReentrantReadWriteLock.WriteLock writeLock() {
+        return structureLock.writeLock();
+    }
+
+    /**
+     * The lock serializing availability checks and booking changes for one room.
+     */
+    public ReentrantLock roomLock(int roomId) {
+        return roomStripes[stripe(roomId)];
+    }
+
+    /**
+     * The distinct stripe locks of several rooms, in stripe order. Anything holding more than
+     * one stripe must take them in this order, so two groups cannot deadlock each other.
+     */
+    public List<ReentrantLock> roomLocks(int[] roomIds) {
+        boolean[] needed = new boolean[roomStripes.length];
+        for (int roomId : roomIds) {
+            needed[stripe(roomId)] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < needed.length; i++) {
+            if (needed[i]) {
+                locks.add(roomStripes[i]);
+            }
+        }
+        return locks;
+    }
+
+    private int stripe(int roomId) {
+        int h = roomId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (roomStripes.length - 1);
+    }
+
+    public EntityTable<Customer> customers() {
+        return customers;
+    }
+
+    /**
+     * Customers by email, phone and name prefix.
+     */
+    public CustomerDirectory directory() {
+        return directory;
+    }
+
+    public EntityTable<Room> rooms() {
+        return rooms;
+    }
+
+    public BookingColumns bookings() {
+        return bookings;
+    }
+
+    /**
+     * The rooms as columns, for filter scans.
+     */
+    public RoomColumns roomColumns() {
+        return roomColumns;
+    }
+
+    public AvailabilityIndex availability() {
+        return availability;
+    }
+
+    public OccupancyCalendar calendar() {
+        return calendar;
+    }
+
+    public BillingLedger ledger() {
+        return ledger;
+    }
+
+    /**
+     * Bookings by check-in and check-out day. Bookings by customer are in {@link #ledger()},
+     * and by room in the room's schedule in {@link #availability()}.
+     */
+    public BookingDateIndex bookingDates() {
+        return bookingDates;
+    }
+
+    public OccupancyAnalytics analytics() {
+        return analytics;
+    }
+
+    public Customer findCustomer(int id) {
+        return customers.get(id);
+    }
+
+    public Room findRoom(int id) {
+        return rooms.get(id);
+    }
+
+    /**
+     * The room a stored booking refers to: the one in the store, else the one retired under
+     * that ID. Loaders use this, as a booking can outlive its room; a room deleted before
+     * the data was saved left no details behind, so a stand-in with no type and a price of 0
+     * is retired in its place and the booking keeps its stay.
+     */
+    public Room bookedRoom(int id) {
+        Room room = rooms.get(id);
+        if (room == null) {
+            room = bookings.retiredRoom(id);
+            if (room == null) {
+                room = new Room(id, null, 0);
+                bookings.retireRoom(room);
+            }
+        }
+        return room;
+    }
+
+    /**
+     * The customer a stored booking refers to; see {@link #bookedRoom}.
+     */
+    public Customer bookedCustomer(int id) {
+        Customer customer = customers.get(id);
+        if (customer == null) {
+            customer = bookings.retiredCustomer(id);
+            if (customer == null) {
+                customer = new Customer(id, null, null, null);
+                bookings.retireCustomer(customer);
+            }
+        }
+        return customer;
+    }
+
+    public Booking findBooking(int id) {
+        return bookings.get(id);
+    }
+
+    public boolean containsBooking(int id) {
+        return bookings.contains(id);
+    }
+
+    /**
+     * Copy of all bookings in ID order, safe to iterate while bookings are being made.
+     */
+    public List<Booking> bookingsSnapshot() {
+        return bookings.list();
+    }
+
+    /**
+     * The room's bookings in check-in order.
+     */
+    public List<Booking> stays(int roomId) {
+        RoomSchedule schedule = availability.scheduleOf(roomId);
+        return schedule == null ? new ArrayList<>() : bookings.get(schedule.bookingIds());
+    }
+
+    public void putCustomer(Customer customer) {
+        Customer old = customers.put(customer);
+        if (old != null) {
+            directory.remove(old);
+        }
+        directory.add(customer);
+    }
+
+    /**
+     * Changes the customer's details in place, so bookings keep pointing at the live object,
+     * and re-files it in the directory.
+     */
+    public void updateCustomer(Customer customer, String name, String email, String phone) {
+        directory.remove(customer);
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setPhoneNumber(phone);
+        directory.add(customer);
+    }
+
+    public Customer removeCustomer(int id) {
+        Customer customer = customers.remove(id);
+        if (customer != null) {
+            directory.remove(customer);
+            if (ledger.hasBookings(id)) {
+                bookings.retireCustomer(customer);
+            }
+        }
+        return customer;
+    }
+
+    public void putRoom(Room room) {
+        rooms.put(room);
+        roomColumns.put(room);
+        availability.addRoom(room.getId());
+        // Bookings that outlived an earlier room with this ID still hold their nights
+        calendar.addRoom(room, stays(room.getId()));
+        analytics.addRoom(room, stays(room.getId()));
+    }
+
+    public Room removeRoom(int id) {
+        Room room = rooms.remove(id);
+        if (room != null) {
+            roomColumns.remove(id);
+            if (!availability.scheduleOf(id).isEmpty()) {
+                bookings.retireRoom(room);
+            }
+            analytics.removeRoom(id, stays(id));
+            availability.removeRoom(id);
+            calendar.removeRoom(id);
+        }
+        return room;
+    }
+
+    /**
+     * Adds the booking if its room is free for the stay. Returns false, leaving the store
+     * unchanged, if the dates overlap another booking of the same room.
+     */
+    public boolean putBooking(Booking booking) {
+        if (!availability.reserve(booking)) {
+            return false;
+        }
+        bookings.put(booking);
+        calendar.occupy(booking);
+        ledger.add(booking);
+        bookingDates.add(booking);
+        analytics.occupy(booking);
+        refreshBookedFlag(booking.getRoom());
+        nextBookingId.accumulateAndGet(booking.getId() + 1, Math::max);
+        return true;
+    }
+
+    public Booking removeBooking(int id) {
+        Booking booking = bookings.remove(id);
+        if (booking != null) {
+            availability.release(booking);
+            calendar.vacate(booking);
+            ledger.remove(booking);
+            bookingDates.remove(booking);
+            analytics.vacate(booking);
+            refreshBookedFlag(booking.getRoom());
+        }
+        return booking;
+    }
+
+    // Room.isBooked is only kept for display and the CSV column: "occupied today"
+    private void refreshBookedFlag(Room room) {
+        boolean occupied = availability.isOccupied(room.getId(), LocalDate.now());
+        room.setBooked(occupied);
+        roomColumns.setBooked(room, occupied);
+    }
+
+    public int nextBookingId() {
+        return nextBookingId.getAndIncrement();
+    }
+
+    /**
+     * Reserves {@code count} consecutive booking IDs and returns the first.
+     */
+    public int nextBookingIds(int count) {
+        return nextBookingId.getAndAdd(count);
+    }
+}
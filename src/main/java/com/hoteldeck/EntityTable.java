@@ -0,0 +1,116 @@
+package com.hoteldeck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A table of entities keyed by their int ID. Point lookups go through an {@link IntMap};
+ * an ID-ordered array list is kept alongside it so the view and save paths can iterate
+ * in order without sorting.
+ */
+public class EntityTable<T> {
+    private final ToIntFunction<T> idOf;
+    private final IntMap<T> index = new IntMap<>();
+    private final ArrayList<T> ordered = new ArrayList<>();
+
+    public EntityTable(ToIntFunction<T> idOf) {
+        this.idOf = idOf;
+    }
+
+    public T get(int id) {
+        return index.get(id);
+    }
+
+    public boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Inserts the entity, or replaces the one stored under the same ID.
+     * Returns the replaced entity, or null if the ID was new.
+     */
+    public T put(T entity) {
+        int id = idOf.applyAsInt(entity);
+        T old = index.put(id, entity);
+        int pos = position(id);
+        if (old != null) {
+            ordered.set(pos, entity);
+        } else {
+            ordered.add(-(pos + 1), entity);
+        }
+        return old;
+    }
+
+    public T remove(int id) {
+        T old = index.remove(id);
+        if (old != null) {
+            ordered.remove(position(id));
+        }
+        return old;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public void clear() {
+        index.clear();
+        ordered.clear();
+    }
+
+    /**
+     * Read-only view of the entities in ascending ID order.
+     */
+    public List<T> ordered() {
+        return Collections.unmodifiableList(ordered);
+    }
+
+    /**
+     * Up to {@code limit} entities that match the filter, in ID order, starting after the
+     * given ID (or from the first entity if it is null). Finds the start by binary search, so
+     * a page costs what it scans, however deep into the table it is.
+     */
+    public Page<T> page(Integer afterId, int limit, Predicate<? super T> filter) {
+        int start = 0;
+        if (afterId != null) {
+            int pos = position(afterId);
+            start = pos >= 0 ? pos + 1 : -(pos + 1);
+        }
+        List<T> items = new ArrayList<>(Math.min(limit, ordered.size() - start));
+        for (int i = start; i < ordered.size(); i++) {
+            T entity = ordered.get(i);
+            if (!filter.test(entity)) continue;
+            if (items.size() == limit) {
+                // A further match: there is a next page, which starts after this page's last item
+                return new Page<>(items, idOf.applyAsInt(items.get(limit - 1)));
+            }
+            items.add(entity);
+        }
+        return new Page<>(items, null);
+    }
+
+    // Binary search over the ordered list; same contract as Collections.binarySearch
+    private int position(int id) {
+        int left = 0;
+        int right = ordered.size() - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            int midId = idOf.applyAsInt(ordered.get(mid));
+            if (midId < id) {
+                left = mid + 1;
+            } else if (midId > id) {
+                right = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(left + 1);
+    }
+}
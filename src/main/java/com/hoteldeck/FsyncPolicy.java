@@ -0,0 +1,13 @@
+package com.hoteldeck;
+
+/**
+ * When the journal forces appended records to the storage device.
+ */
+public enum FsyncPolicy {
+    /** fsync after every record; a confirmed change survives power loss. */
+    ALWAYS,
+    /** fsync from a background timer; at most one interval of changes can be lost. */
+    INTERVAL,
+    /** Leave it to the operating system; survives a process crash but not power loss. */
+    NEVER
+}
@@ -0,0 +1,332 @@
+package com.hoteldeck;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Startup settings for a {@link HotelDeck}. Defaults match the original behaviour:
+ * CSV files in the working directory, rewritten on every change.
+ */
+public class HotelConfig {
+    private Path dataDir = Paths.get(".");
+    private PersistenceMode persistenceMode = PersistenceMode.CSV;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+    private long fsyncIntervalMillis = 1000;
+    private long compactIntervalSeconds = 60;
+    private long compactThresholdBytes = 1 << 20;
+    private boolean writeBehind;
+    private long writeBehindIntervalMillis = 50;
+    private int writeBehindBatchSize = 1000;
+    private int writeBehindQueueCapacity = 10_000;
+    private boolean metricsJmx = true;
+    private String metricsName = "hoteldeck";
+    private Path metricsFile;
+    private long metricsIntervalSeconds = 60;
+    private int httpPort;
+    private int httpBacklog = 4096;
+    private List<Integer> propertyIds = new ArrayList<>();
+    private int replicationPort;
+    private String replicaOf;
+    private int replicationQueueCapacity = 100_000;
+
+    /**
+     * Reads overrides from {@code -Dhoteldeck.*} system properties.
+     */
+    public static HotelConfig fromSystemProperties() {
+        HotelConfig config = new HotelConfig();
+        String dir = System.getProperty("hoteldeck.dataDir");
+        if (dir != null) {
+            config.setDataDir(Paths.get(dir));
+        }
+        String mode = System.getProperty("hoteldeck.persistence");
+        if (mode != null) {
+            config.setPersistenceMode(PersistenceMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+        }
+        String format = System.getProperty("hoteldeck.snapshot");
+        if (format != null) {
+            config.setSnapshotFormat(SnapshotFormat.valueOf(format.trim().toUpperCase(Locale.ROOT)));
+        }
+        String fsync = System.getProperty("hoteldeck.journal.fsync");
+        if (fsync != null) {
+            config.setFsyncPolicy(FsyncPolicy.valueOf(fsync.trim().toUpperCase(Locale.ROOT)));
+        }
+        config.setFsyncIntervalMillis(Long.getLong("hoteldeck.journal.fsyncIntervalMillis", config.fsyncIntervalMillis));
+        config.setCompactIntervalSeconds(Long.getLong("hoteldeck.journal.compactIntervalSeconds", config.compactIntervalSeconds));
+        config.setCompactThresholdBytes(Long.getLong("hoteldeck.journal.compactThresholdBytes", config.compactThresholdBytes));
+        config.setWriteBehind(Boolean.getBoolean("hoteldeck.writeBehind"));
+        config.setWriteBehindIntervalMillis(Long.getLong("hoteldeck.writeBehind.intervalMillis", config.writeBehindIntervalMillis));
+        config.setWriteBehindBatchSize(Integer.getInteger("hoteldeck.writeBehind.batchSize", config.writeBehindBatchSize));
+        config.setWriteBehindQueueCapacity(Integer.getInteger("hoteldeck.writeBehind.queueCapacity", config.writeBehindQueueCapacity));
+        String jmx = System.getProperty("hoteldeck.metrics.jmx");
+        if (jmx != null) {
+            config.setMetricsJmx(Boolean.parseBoolean(jmx.trim()));
+        }
+        config.setMetricsName(System.getProperty("hoteldeck.metrics.name", config.metricsName));
+        String metricsFile = System.getProperty("hoteldeck.metrics.file");
+        if (metricsFile != null) {
+            config.setMetricsFile(Paths.get(metricsFile));
+        }
+        config.setMetricsIntervalSeconds(Long.getLong("hoteldeck.metrics.intervalSeconds", config.metricsIntervalSeconds));
+        config.setHttpPort(Integer.getInteger("hoteldeck.http.port", config.httpPort));
+        config.setHttpBacklog(Integer.getInteger("hoteldeck.http.backlog", config.httpBacklog));
+        String properties = System.getProperty("hoteldeck.properties");
+        if (properties != null) {
+            List<Integer> ids = new ArrayList<>();
+            for (String id : properties.split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(Integer.parseInt(id.trim()));
+                }
+            }
+            config.setPropertyIds(ids);
+        }
+        config.setReplicationPort(Integer.getInteger("hoteldeck.replication.port", config.replicationPort));
+        config.setReplicaOf(System.getProperty("hoteldeck.replicaOf", config.replicaOf));
+        config.setReplicationQueueCapacity(Integer.getInteger("hoteldeck.replication.queueCapacity",
+                config.replicationQueueCapacity));
+        return config;
+    }
+
+    /**
+     * A copy of every setting, for deriving the settings of one shard from a shared config.
+     */
+    public HotelConfig copy() {
+        HotelConfig copy = new HotelConfig();
+        copy.dataDir = dataDir;
+        copy.persistenceMode = persistenceMode;
+        copy.snapshotFormat = snapshotFormat;
+        copy.fsyncPolicy = fsyncPolicy;
+        copy.fsyncIntervalMillis = fsyncIntervalMillis;
+        copy.compactIntervalSeconds = compactIntervalSeconds;
+        copy.compactThresholdBytes = compactThresholdBytes;
+        copy.writeBehind = writeBehind;
+        copy.writeBehindIntervalMillis = writeBehindIntervalMillis;
+        copy.writeBehindBatchSize = writeBehindBatchSize;
+        copy.writeBehindQueueCapacity = writeBehindQueueCapacity;
+        copy.metricsJmx = metricsJmx;
+        copy.metricsName = metricsName;
+        copy.metricsFile = metricsFile;
+        copy.metricsIntervalSeconds = metricsIntervalSeconds;
+        copy.httpPort = httpPort;
+        copy.httpBacklog = httpBacklog;
+        copy.propertyIds = new ArrayList<>(propertyIds);
+        copy.replicationPort = replicationPort;
+        copy.replicaOf = replicaOf;
+        copy.replicationQueueCapacity = replicationQueueCapacity;
+        return copy;
+    }
+
+    // Getters and Setters
+    public Path getDataDir() {
+        return dataDir;
+    }
+
+    public void setDataDir(Path dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public void setPersistenceMode(PersistenceMode persistenceMode) {
+        this.persistenceMode = persistenceMode;
+    }
+
+    /**
+     * Format of the snapshots written by journal compaction; CSV persistence ignores it.
+     */
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    public long getFsyncIntervalMillis() {
+        return fsyncIntervalMillis;
+    }
+
+    public void setFsyncIntervalMillis(long fsyncIntervalMillis) {
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    public long getCompactIntervalSeconds() {
+        return compactIntervalSeconds;
+    }
+
+    public void setCompactIntervalSeconds(long compactIntervalSeconds) {
+        this.compactIntervalSeconds = compactIntervalSeconds;
+    }
+
+    public long getCompactThresholdBytes() {
+        return compactThresholdBytes;
+    }
+
+    public void setCompactThresholdBytes(long compactThresholdBytes) {
+        this.compactThresholdBytes = compactThresholdBytes;
+    }
+
+    /**
+     * Whether changes are written by a background persister (see {@link WriteBehindPersistence})
+     * instead of before each operation returns.
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Longest time a change waits for others to share its write.
+     */
+    public long getWriteBehindIntervalMillis() {
+        return writeBehindIntervalMillis;
+    }
+
+    public void setWriteBehindIntervalMillis(long writeBehindIntervalMillis) {
+        this.writeBehindIntervalMillis = writeBehindIntervalMillis;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+
+    /**
+     * Changes that may be waiting to be written before new ones block.
+     */
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public void setWriteBehindQueueCapacity(int writeBehindQueueCapacity) {
+        this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+    }
+
+    /**
+     * Whether the operation metrics are registered as MBeans (see {@link HotelMetrics}).
+     * They are recorded either way.
+     */
+    public boolean isMetricsJmx() {
+        return metricsJmx;
+    }
+
+    public void setMetricsJmx(boolean metricsJmx) {
+        this.metricsJmx = metricsJmx;
+    }
+
+    /**
+     * Name the hotel's MBeans are registered under.
+     */
+    public String getMetricsName() {
+        return metricsName;
+    }
+
+    public void setMetricsName(String metricsName) {
+        this.metricsName = metricsName;
+    }
+
+    /**
+     * File the metrics report is rewritten to every {@link #getMetricsIntervalSeconds()}
+     * seconds, or null (the default) for none.
+     */
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public long getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+
+    public void setMetricsIntervalSeconds(long metricsIntervalSeconds) {
+        this.metricsIntervalSeconds = metricsIntervalSeconds;
+    }
+
+    /**
+     * Port for the HTTP front end; 0 (the default) runs the console menu instead.
+     */
+    public int getHttpPort() {
+        return httpPort;
+    }
+
+    public void setHttpPort(int httpPort) {
+        this.httpPort = httpPort;
+    }
+
+    public int getHttpBacklog() {
+        return httpBacklog;
+    }
+
+    public void setHttpBacklog(int httpBacklog) {
+        this.httpBacklog = httpBacklog;
+    }
+
+    /**
+     * The properties served by a {@link HotelRouter}, one shard each; empty (the default)
+     * runs a single hotel.
+     */
+    public List<Integer> getPropertyIds() {
+        return propertyIds;
+    }
+
+    public void setPropertyIds(List<Integer> propertyIds) {
+        this.propertyIds = propertyIds;
+    }
+
+    /**
+     * Loopback port this hotel ships its changes to read replicas on; 0 (the default) ships nothing.
+     */
+    public int getReplicationPort() {
+        return replicationPort;
+    }
+
+    public void setReplicationPort(int replicationPort) {
+        this.replicationPort = replicationPort;
+    }
+
+    /**
+     * {@code host:port} of the primary this hotel is a read-only replica of, or null (the
+     * default) for a hotel that keeps its own data.
+     */
+    public String getReplicaOf() {
+        return replicaOf;
+    }
+
+    public void setReplicaOf(String replicaOf) {
+        this.replicaOf = replicaOf;
+    }
+
+    /**
+     * Changes the primary holds for one replica before dropping it as too slow; the replica
+     * then reconnects and starts over from a full copy.
+     */
+    public int getReplicationQueueCapacity() {
+        return replicationQueueCapacity;
+    }
+
+    public void setReplicationQueueCapacity(int replicationQueueCapacity) {
+        this.replicationQueueCapacity = replicationQueueCapacity;
+    }
+}
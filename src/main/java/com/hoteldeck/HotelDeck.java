@@ -1,696 +1,791 @@
 package com.hoteldeck;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
-public class HotelDeck {
-    private LinkedList<Customer> customers = new LinkedList<>();
-    private Set<Integer> customerIds = new HashSet<>();
-    private static LinkedList<Room> rooms = new LinkedList<>();
-    private LinkedList<Booking> bookings = new LinkedList<>();
-    private int nextBookingId = 1;
-    private Scanner scanner = new Scanner(System.in);
-
-    private static final String CUSTOMER_CSV = "customers.csv";
-    private static final String ROOM_CSV = "Room.csv";
-    private static final String BOOKING_CSV = "Booking.csv";
+/**
+ * The hotel: customers, rooms and bookings with their persistence. Every operation is
+ * programmatic and side-effect free on the console; {@link ConsoleMenu} is the interactive
+ * front end.
+ */
+public class HotelDeck implements AutoCloseable {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z ]+");
+    private static final Pattern PHONE = Pattern.compile("\\d{10}");
+    // Largest page a listing hands out, so one request cannot hold the read lock for long
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final String READ_ONLY = "This hotel is a read-only replica; make changes on the primary.";
+
+    private final EntityStore store = new EntityStore();
+    private final HotelMetrics metrics = new HotelMetrics();
+    private final Persistence persistence;
 
     public HotelDeck() {
-        loadCustomersFromCSV();
-        loadRoomsFromCSV();
-        loadBookingsFromCSV();
+        this(HotelConfig.fromSystemProperties());
     }
 
-    // Validation helpers
-    private boolean isValidName(String name) {
-        return Pattern.matches("[a-zA-Z ]+", name);
+    public HotelDeck(HotelConfig config) {
+        persistence = config.getReplicaOf() != null
+                ? new ReplicaPersistence(config.getReplicaOf(), metrics) : primaryPersistence(config);
+        long started = System.nanoTime();
+        persistence.load(store);
+        metrics.record(Operation.LOAD, started);
+        metrics.attach(store);
+        if (config.isMetricsJmx()) {
+            metrics.register(config.getMetricsName());
+        }
+        if (config.getMetricsFile() != null) {
+            metrics.dumpTo(config.getMetricsFile(), config.getMetricsIntervalSeconds());
+        }
     }
 
-    private boolean isValidEmail(String email) {
-        return email.contains("@");
+    private Persistence primaryPersistence(HotelConfig config) {
+        Path dir = config.getDataDir();
+        Persistence strategy = switch (config.getPersistenceMode()) {
+            case CSV -> new CsvPersistence(new CsvSnapshot(dir, metrics));
+            case JOURNAL -> new JournalPersistence(switch (config.getSnapshotFormat()) {
+                case CSV -> new CsvSnapshot(dir, metrics);
+                case BINARY -> new BinarySnapshot(dir, metrics);
+            }, dir, config, metrics);
+            case RECORDS -> new RecordFilePersistence(dir, metrics);
+        };
+        if (config.isWriteBehind()) {
+            strategy = new WriteBehindPersistence(strategy, config);
+        }
+        return config.getReplicationPort() > 0 ? new ReplicationPrimary(strategy, config, metrics) : strategy;
     }
 
-    private boolean isValidPhone(String phone) {
-        return Pattern.matches("\\d{10}", phone);
+    // Validation helpers
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
     }
 
-    private void loadCustomersFromCSV() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(CUSTOMER_CSV))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                String[] parts = line.split(",");
-                int id = Integer.parseInt(parts[0].trim());
-                String name = parts[1].trim();
-                String email = parts[2].trim();
-                String phoneNumber = parts[3].trim();
-                customers.add(new Customer(id, name, email, phoneNumber));
-                customerIds.add(id);
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading customers: " + e.getMessage());
-        }
+    public static boolean isValidEmail(String email) {
+        return email != null && email.contains("@");
     }
 
-    private void saveCustomersToCSV() {
-        customers = mergeSortCustomers(customers);
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CUSTOMER_CSV))) {
-            writer.write("id,name,email,phoneNumber\n");
-            for (Customer customer : customers) {
-                writer.write(customer.getId() + "," + customer.getName() + "," +
-                        customer.getEmail() + "," + customer.getPhoneNumber());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving customers: " + e.getMessage());
-        }
+    public static boolean isValidPhone(String phone) {
+        return phone != null && PHONE.matcher(phone).matches();
     }
 
-    private void loadRoomsFromCSV() {
-        File file = new File(ROOM_CSV);
-        if (!file.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                String[] data = line.split(",");
-                if (data.length < 4) continue;
-                int id = Integer.parseInt(data[0].trim());
-                String type = data[1].trim();
-                double price = Double.parseDouble(data[2].trim());
-                boolean isBooked = Boolean.parseBoolean(data[3].trim());
-                Room room = new Room(id, type, price);
-                room.setBooked(isBooked);
-                rooms.add(room);
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading rooms: " + e.getMessage());
+    /**
+     * Returns the canonical spelling of a room type ("single" becomes "Single"), or null
+     * if it is not one of Single, Double or Deluxe.
+     */
+    public static String normalizeRoomType(String type) {
+        if (type == null) return null;
+        type = type.trim();
+        if (type.equalsIgnoreCase("Single") || type.equalsIgnoreCase("Double") || type.equalsIgnoreCase("Deluxe")) {
+            return type.substring(0, 1).toUpperCase() + type.substring(1).toLowerCase();
         }
+        return null;
     }
 
-    public void saveRoomsToCSV() {
-        rooms = mergeSortRooms(rooms);
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("Room.csv"))) {
-            writer.write("id,type,price,isBooked\n");
-            for (Room room : rooms) {
-                writer.write(room.getId() + "," + room.getType() + "," + room.getPrice() + "," + room.isBooked() + "\n");
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving room data to CSV: " + e.getMessage());
-        }
+    private static String validateCustomer(String name, String email, String phone) {
+        if (!isValidName(name)) return "Invalid name. Only alphabets and spaces allowed.";
+        if (!isValidEmail(email)) return "Invalid email format.";
+        if (!isValidPhone(phone)) return "Phone number must be 10 digits.";
+        return null;
     }
 
+    // Customers
 
-    private void loadBookingsFromCSV() {
-        File file = new File(BOOKING_CSV);
-        if (!file.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                String[] data = line.split(",");
-                if (data.length < 5) continue;
-                int id = Integer.parseInt(data[0].trim());
-                int roomId = Integer.parseInt(data[1].trim());
-                int customerId = Integer.parseInt(data[2].trim());
-                LocalDate checkInDate = LocalDate.parse(data[3].trim());
-                LocalDate checkOutDate = LocalDate.parse(data[4].trim());
-                Room room = findRoomById(roomId);
-                Customer customer = findCustomerById(customerId);
-                if (room != null && customer != null) {
-                    Booking booking = new Booking(id, room, customer, checkInDate, checkOutDate);
-                    bookings.add(booking);
-                    room.setBooked(true);
-                    if (id >= nextBookingId) {
-                        nextBookingId = id + 1;
-                    }
-                }
-            }
-        } catch (IOException | NumberFormatException | DateTimeParseException e) {
-            System.out.println("Error loading bookings: " + e.getMessage());
+    public Result<Customer> addCustomer(int id, String name, String email, String phone) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-    }
-
-    private void saveBookingsToCSV() {
-        bookings.sort(Comparator.comparingInt(Booking::getId));
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BOOKING_CSV))) {
-            writer.write("id,roomId,customerId,checkInDate,checkOutDate\n");
-            for (Booking booking : bookings) {
-                writer.write(booking.getId() + "," + booking.getRoom().getId() + "," +
-                        booking.getCustomer().getId() + "," + booking.getCheckInDate() + "," +
-                        booking.getCheckOutDate());
-                writer.newLine();
+        String error = validateCustomer(name, email, phone);
+        if (error != null) {
+            return Result.invalid(error);
+        }
+        Customer customer = new Customer(id, name, email, phone);
+        store.writeLock().lock();
+        try {
+            if (store.customers().contains(id)) {
+                return Result.conflict("Customer ID already exists!");
             }
-        } catch (IOException e) {
-            System.out.println("Error saving bookings: " + e.getMessage());
+            store.putCustomer(customer);
+            persistence.customerSaved(customer);
+        } finally {
+            store.writeLock().unlock();
+            metrics.record(Operation.ADD_CUSTOMER, started);
         }
+        return Result.ok(customer);
     }
 
-    public void addCustomer() {
-        int id;
-        while (true) {
-            System.out.print("Enter customer ID: ");
-            try {
-                id = Integer.parseInt(scanner.nextLine());
-                if (customerIds.contains(id)) {
-                    System.out.println("Customer ID already exists!");
-                    continue;
-                }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a valid integer for ID.");
-            }
+    public Result<Customer> updateCustomer(int id, String name, String email, String phone) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-
-        String name;
-        while (true) {
-            System.out.print("Enter customer name: ");
-            name = scanner.nextLine();
-            if (!isValidName(name)) {
-                System.out.println("Invalid name. Only alphabets and spaces allowed.");
-            } else {
-                break;
-            }
+        String error = validateCustomer(name, email, phone);
+        if (error != null) {
+            return Result.invalid(error);
         }
-
-        String email;
-        while (true) {
-            System.out.print("Enter customer email: ");
-            email = scanner.nextLine();
-            if (!isValidEmail(email)) {
-                System.out.println("Invalid email format.");
-            } else {
-                break;
-            }
-        }
-
-        String phone;
-        while (true) {
-            System.out.print("Enter customer phone number: ");
-            phone = scanner.nextLine();
-            if (!isValidPhone(phone)) {
-                System.out.println("Phone number must be 10 digits.");
-            } else {
-                break;
+        store.writeLock().lock();
+        try {
+            Customer customer = store.findCustomer(id);
+            if (customer == null) {
+                return Result.notFound("Customer with ID " + id + " not found.");
             }
+            store.updateCustomer(customer, name, email, phone);
+            persistence.customerSaved(customer);
+            return Result.ok(customer);
+        } finally {
+            store.writeLock().unlock();
+            metrics.record(Operation.UPDATE_CUSTOMER, started);
         }
-
-        customers.add(new Customer(id, name, email, phone));
-        customerIds.add(id);
-        saveCustomersToCSV();
-        System.out.println("Customer added successfully!");
     }
 
-
-
-    public void viewCustomers() {
-        if (customers.isEmpty()) {
-            System.out.println("No customers found.");
-            return;
-        }
-        customers = mergeSortCustomers(customers);
-
-        for (Customer c : customers) {
-            System.out.println("ID: " + c.getId() + ", Name: " + c.getName() +
-                    ", Email: " + c.getEmail() + ", Phone: " + c.getPhoneNumber());
+    public Result<Customer> deleteCustomer(int id) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-    }
-    public void updateCustomer() {
-        System.out.print("Enter customer ID to update: ");
-        int id;
+        store.writeLock().lock();
         try {
-            id = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Please enter a valid integer for ID.");
-            return;
+            Customer customer = store.removeCustomer(id);
+            if (customer == null) {
+                return Result.notFound("Customer not found.");
+            }
+            persistence.customerDeleted(id);
+            return Result.ok(customer);
+        } finally {
+            store.writeLock().unlock();
+            metrics.record(Operation.DELETE_CUSTOMER, started);
         }
+    }
 
-        Customer customerToUpdate = findCustomerById(id);
+    /**
+     * Adds or refreshes this hotel's copy of a customer whose master record is kept elsewhere,
+     * in the shared registry of a {@link HotelRouter}. The details were validated there.
+     */
+    void syncCustomer(int id, String name, String email, String phone) {
+        copyCustomer(id, name, email, phone, true);
+    }
 
-        if (customerToUpdate == null) {
-            System.out.println("Customer with ID " + id + " not found.");
-            return;
-        }
+    /**
+     * Refreshes this hotel's copy of a registry customer, if it has one.
+     */
+    void refreshCustomer(int id, String name, String email, String phone) {
+        copyCustomer(id, name, email, phone, false);
+    }
 
-        String name;
-        while (true) {
-            System.out.print("Enter new customer name (current: " + customerToUpdate.getName() + "): ");
-            name = scanner.nextLine();
-            if (!isValidName(name)) {
-                System.out.println("Invalid name. Only alphabets and spaces allowed.");
+    private void copyCustomer(int id, String name, String email, String phone, boolean addIfMissing) {
+        store.writeLock().lock();
+        try {
+            Customer customer = store.findCustomer(id);
+            if (customer == null) {
+                if (!addIfMissing) return;
+                customer = new Customer(id, name, email, phone);
+                store.putCustomer(customer);
+            } else if (Objects.equals(customer.getName(), name) && Objects.equals(customer.getEmail(), email)
+                    && Objects.equals(customer.getPhoneNumber(), phone)) {
+                return;
             } else {
-                break;
+                store.updateCustomer(customer, name, email, phone);
             }
+            persistence.customerSaved(customer);
+        } finally {
+            store.writeLock().unlock();
         }
+    }
 
-        String email;
-        while (true) {
-            System.out.print("Enter new customer email (current: " + customerToUpdate.getEmail() + "): ");
-            email = scanner.nextLine();
-            if (!isValidEmail(email)) {
-                System.out.println("Invalid email format.");
-            } else {
-                break;
-            }
+    /**
+     * True if bookings are still filed under the customer ID, including bookings of a
+     * customer who has since been deleted.
+     */
+    public boolean hasBookings(int customerId) {
+        store.readLock().lock();
+        try {
+            return store.ledger().hasBookings(customerId);
+        } finally {
+            store.readLock().unlock();
         }
+    }
 
-        String phone;
-        while (true) {
-            System.out.print("Enter new customer phone number (current: " + customerToUpdate.getPhoneNumber() + "): ");
-            phone = scanner.nextLine();
-            if (!isValidPhone(phone)) {
-                System.out.println("Phone number must be 10 digits.");
-            } else {
-                break;
+    public Customer findCustomerById(int id) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            Customer customer = store.findCustomer(id);
+            if (customer == null) {
+                LookupMissEvent.emit("Customer", id);
             }
+            return customer;
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.FIND_CUSTOMER, started);
         }
-
-        customerToUpdate.setName(name);
-        customerToUpdate.setEmail(email);
-        customerToUpdate.setPhoneNumber(phone);
-        saveCustomersToCSV();
-        System.out.println("Customer updated successfully!");
     }
 
-
-    public void deleteCustomer() {
-        System.out.print("Enter customer ID to delete: ");
-        int id;
+    /**
+     * Customers with this email, ignoring case, in ID order.
+     */
+    public List<Customer> findCustomersByEmail(String email) {
+        long started = System.nanoTime();
+        store.readLock().lock();
         try {
-            id = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Please enter a valid integer for ID.");
-            return;
+            return store.directory().byEmail(email);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.SEARCH_CUSTOMERS, started);
         }
+    }
 
-        Customer customerToRemove = findCustomerById(id);
-        if (customerToRemove != null) {
-            customers.remove(customerToRemove);
-            customerIds.remove(id);
-            saveCustomersToCSV();
-            System.out.println("Customer deleted successfully.");
-        } else {
-            System.out.println("Customer not found.");
+    /**
+     * Customers with this phone number, ignoring anything but digits, in ID order.
+     */
+    public List<Customer> findCustomersByPhone(String phone) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            return store.directory().byPhone(phone);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.SEARCH_CUSTOMERS, started);
         }
     }
 
-
-    public void addRoom() {
-        System.out.print("Enter room ID: ");
-        int id = scanner.nextInt();
-        scanner.nextLine();
-        if (rooms.stream().anyMatch(room -> room.getId() == id)) {
-            System.out.println("Room ID already exists!");
-            return;
+    /**
+     * Type-ahead search: up to {@code limit} customers whose name starts with the prefix,
+     * ignoring case, in name order.
+     */
+    public List<Customer> findCustomersByName(String prefix, int limit) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            return store.directory().byNamePrefix(prefix, limit);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.SEARCH_CUSTOMERS, started);
         }
+    }
 
-        String type;
-        while (true) {
-            System.out.print("Enter room type (Single/Double/Deluxe): ");
-            type = scanner.nextLine().trim();
-            if (type.equalsIgnoreCase("Single") || type.equalsIgnoreCase("Double") || type.equalsIgnoreCase("Deluxe")) {
-                // Normalize input (e.g., "single" → "Single")
-                type = type.substring(0, 1).toUpperCase() + type.substring(1).toLowerCase();
-                break;
-            } else {
-                System.out.println("Invalid room type. Please enter either 'Single', 'Double', or 'Deluxe'.");
-            }
+    /**
+     * All customers in ID order, as a copy.
+     */
+    public List<Customer> customers() {
+        store.readLock().lock();
+        try {
+            return new ArrayList<>(store.customers().ordered());
+        } finally {
+            store.readLock().unlock();
         }
+    }
 
-        double price;
-        while (true) {
-            System.out.print("Enter room price: ");
-            try {
-                price = Double.parseDouble(scanner.nextLine());
-                if (price <= 0) {
-                    System.out.println("Price must be positive.");
-                    continue;
-                }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid price. Please enter a valid number.");
-            }
+    /**
+     * One page of customers in ID order, starting after the given ID (null for the first
+     * page). Costs the page, not the table: the start is found by binary search.
+     *
+     * @param namePrefix start of the name to match, ignoring case, or null for every customer
+     */
+    public Page<Customer> customersPage(Integer afterId, int limit, String namePrefix) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            return store.customers().page(afterId, pageSize(limit), c -> namePrefix == null
+                    || c.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length()));
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.LIST_PAGE, started);
         }
+    }
 
-        rooms.add(new Room(id, type, price));
-        saveRoomsToCSV();
-        System.out.println("Room added successfully!");
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 
+    // Rooms
 
-    public void viewRooms() {
-        if (rooms.isEmpty()) {
-            System.out.println("No rooms found.");
-            return;
+    public Result<Room> addRoom(int id, String type, double price) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-        rooms = mergeSortRooms(rooms);
-
-        for (Room room : rooms) {
-            System.out.println("Room ID: " + room.getId() + ", Type: " + room.getType() +
-                    ", Price: " + room.getPrice() + ", Status: " + (room.isBooked() ? "Booked" : "Available"));
+        String normalized = normalizeRoomType(type);
+        if (normalized == null) {
+            return Result.invalid("Invalid room type. Please enter either 'Single', 'Double', or 'Deluxe'.");
         }
-    }
-
-    public void deleteRoomById() {
-        System.out.print("Enter Room ID to delete: ");
-        String idStr = scanner.nextLine().trim();
-
+        if (price <= 0) {
+            return Result.invalid("Price must be positive.");
+        }
+        Room room = new Room(id, normalized, price);
+        store.writeLock().lock();
         try {
-            int id = Integer.parseInt(idStr);
-
-            Room roomToRemove = findRoomById(id);
-            if (roomToRemove != null) {
-                rooms.remove(roomToRemove);
-                System.out.println("Room deleted successfully.");
-                rooms = mergeSortRooms(rooms);
-                saveRoomsToCSV();
-            } else {
-                System.out.println("Room with ID " + id + " not found.");
+            if (store.rooms().contains(id)) {
+                return Result.conflict("Room ID already exists!");
             }
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid Room ID format.");
+            store.putRoom(room);
+            persistence.roomSaved(room);
+        } finally {
+            store.writeLock().unlock();
+            metrics.record(Operation.ADD_ROOM, started);
         }
+        return Result.ok(room);
     }
 
-
-    public void bookRoom() {
-        List<Room> availableRooms = new ArrayList<>();
-        for (Room room : rooms) {
-            if (!room.isBooked()) {
-                availableRooms.add(room);
-            }
+    public Result<Room> deleteRoom(int id) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-
-        if (availableRooms.isEmpty()) {
-            System.out.println("No rooms are currently available for booking.");
-            return;
-        } else {
-            System.out.println("Available rooms:");
-            for (Room room : availableRooms) {
-                System.out.println("Room ID: " + room.getId() + ", Type: " + room.getType() + ", Price: " + room.getPrice());
+        store.writeLock().lock();
+        try {
+            Room room = store.removeRoom(id);
+            if (room == null) {
+                return Result.notFound("Room with ID " + id + " not found.");
             }
+            persistence.roomDeleted(id);
+            return Result.ok(room);
+        } finally {
+            store.writeLock().unlock();
+            metrics.record(Operation.DELETE_ROOM, started);
         }
+    }
 
-        System.out.print("Enter room ID: ");
-        int roomId = scanner.nextInt();
-        System.out.print("Enter customer ID: ");
-        int customerId = scanner.nextInt();
-        scanner.nextLine();
-
-        Customer customer = findCustomerById(customerId);
-        Room room = findRoomById(roomId);
-
-        if (customer == null || room == null || room.isBooked()) {
-            System.out.println("Invalid booking. Check room/customer ID or room availability.");
-            return;
-        }
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        LocalDate checkInDate;
-        LocalDate checkOutDate;
-
+    public Room findRoomById(int id) {
+        long started = System.nanoTime();
+        store.readLock().lock();
         try {
-            System.out.print("Enter Check-in Date (yyyy-MM-dd): ");
-            checkInDate = LocalDate.parse(scanner.nextLine(), formatter);
-            System.out.print("Enter Check-out Date (yyyy-MM-dd): ");
-            checkOutDate = LocalDate.parse(scanner.nextLine(), formatter);
-
-            if (!checkOutDate.isAfter(checkInDate)) {
-                System.out.println("Check-out must be after check-in.");
-                return;
-            }
-        } catch (DateTimeParseException e) {
-            System.out.println("Invalid date format.");
-            return;
-        }
-
-        Booking booking = new Booking(nextBookingId++, room, customer, checkInDate, checkOutDate);
-        bookings.add(booking);
-        room.setBooked(true);
-        saveBookingsToCSV();
-        saveRoomsToCSV();
-
-        long days = java.time.temporal.ChronoUnit.DAYS.between(checkInDate, checkOutDate);
-        double totalCost = days * room.getPrice();
-        System.out.println("Room booked successfully!");
-        System.out.println("Bill: " + days + " nights " + room.getPrice() + " = " + totalCost);
-    }
-
-    public void cancelBooking() {
-        System.out.print("Enter booking ID to cancel: ");
-        int bookingId = scanner.nextInt();
-        scanner.nextLine();
-
-        Iterator<Booking> iterator = bookings.iterator();
-        while (iterator.hasNext()) {
-            Booking b = iterator.next();
-            if (b.getId() == bookingId) {
-                b.getRoom().setBooked(false);
-                iterator.remove();
-                saveBookingsToCSV();
-                saveRoomsToCSV();
-                System.out.println("Booking canceled.");
-                return;
+            Room room = store.findRoom(id);
+            if (room == null) {
+                LookupMissEvent.emit("Room", id);
             }
+            return room;
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.FIND_ROOM, started);
         }
-        System.out.println("Booking not found.");
     }
 
-    public void viewBookings() {
-        if (bookings.isEmpty()) {
-            System.out.println("No bookings found.");
-            return;
+    /**
+     * All rooms in ID order, as a copy.
+     */
+    public List<Room> rooms() {
+        store.readLock().lock();
+        try {
+            return new ArrayList<>(store.rooms().ordered());
+        } finally {
+            store.readLock().unlock();
         }
-        bookings = mergeSortBookings(bookings);
+    }
 
-        for (Booking b : bookings) {
-            System.out.println("Booking ID: " + b.getId() + ", Room ID: " + b.getRoom().getId() +
-                    ", Customer ID: " + b.getCustomer().getId() +
-                    ", Check-in: " + b.getCheckInDate() +
-                    ", Check-out: " + b.getCheckOutDate());
+    /**
+     * One page of rooms in ID order, starting after the given ID (null for the first page).
+     *
+     * @param type room type to match, case-insensitively, or null for any type
+     */
+    public Page<Room> roomsPage(Integer afterId, int limit, String type, double minPrice, double maxPrice) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            return store.rooms().page(afterId, pageSize(limit), r -> (type == null || r.getType().equalsIgnoreCase(type))
+                    && r.getPrice() >= minPrice && r.getPrice() <= maxPrice);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.LIST_PAGE, started);
         }
     }
 
-    public void generateBill() {
-        System.out.print("Enter Customer ID for bill generation: ");
-        int customerId = -1;
+    /**
+     * Rooms of the type (case-insensitively, or any if null) priced between minPrice and
+     * maxPrice inclusive, in ID order, scanned from the room columns.
+     *
+     * @param freeTodayOnly leave out rooms occupied today
+     */
+    public List<Room> findRooms(String type, double minPrice, double maxPrice, boolean freeTodayOnly) {
+        long started = System.nanoTime();
+        store.readLock().lock();
         try {
-            customerId = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid Customer ID format.");
-            return;
+            return store.roomColumns().find(type, minPrice, maxPrice, freeTodayOnly);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.FILTER_ROOMS, started);
         }
+    }
 
-        Customer customer = findCustomerById(customerId);
-        if (customer == null) {
-            System.out.println("Customer not found.");
-            return;
-        }
-
-        boolean hasBookings = false;
-        double totalBill = 0;
-        for (Booking b : bookings) {
-            if (b.getCustomer().getId() == customerId) {
-                long days = java.time.temporal.ChronoUnit.DAYS.between(b.getCheckInDate(), b.getCheckOutDate());
-                double cost = days * b.getRoom().getPrice();
-                System.out.println("Booking ID: " + b.getId() + ", Room ID: " + b.getRoom().getId() +
-                        ", Stay: " + days + " nights, Cost: " + cost);
-                totalBill += cost;
-                hasBookings = true;
-            }
+    public boolean isOccupied(int roomId, LocalDate day) {
+        ReentrantLock roomLock = store.roomLock(roomId);
+        store.readLock().lock();
+        roomLock.lock();
+        try {
+            return store.availability().isOccupied(roomId, day);
+        } finally {
+            roomLock.unlock();
+            store.readLock().unlock();
         }
+    }
 
-        if (!hasBookings) {
-            System.out.println("No bookings found for this customer.");
-        } else {
-            System.out.println("Total bill for Customer ID " + customerId + ": " + totalBill);
+    /**
+     * Rooms free for every night from check-in to check-out, in ID order.
+     *
+     * @param type room type to match, case-insensitively, or null for any type
+     */
+    public List<Room> freeRooms(String type, LocalDate checkIn, LocalDate checkOut) {
+        long started = System.nanoTime();
+        List<Room> free;
+        store.readLock().lock();
+        try {
+            free = store.calendar().freeRooms(type, checkIn, checkOut);
+        } finally {
+            store.readLock().unlock();
         }
+        free.sort(Comparator.comparingInt(Room::getId));
+        metrics.record(Operation.FREE_ROOMS, started);
+        return free;
     }
 
-    public void exit() {
-        saveCustomersToCSV();
-        saveRoomsToCSV();
-        saveBookingsToCSV();
-        System.out.println("Data saved. Goodbye!");
+    /**
+     * Occupied room-nights, occupancy rate and revenue per room type for the nights from
+     * {@code from} up to (not including) {@code to}, answered from the running totals.
+     */
+    public List<OccupancyAnalytics.Summary> occupancyByType(LocalDate from, LocalDate to) {
+        return store.analytics().summarize(from, to);
     }
 
-    private Customer findCustomerById(int id) {
-        customers = mergeSortCustomers(customers);
-        int left = 0;
-        int right = customers.size() - 1;
+    /**
+     * Per-night figures for one room type, or for the whole hotel if type is null.
+     */
+    public List<OccupancyAnalytics.Summary> dailyOccupancy(String type, LocalDate from, LocalDate to) {
+        return store.analytics().daily(type, from, to);
+    }
 
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            Customer midCustomer = customers.get(mid);
+    // Bookings
+
+    /**
+     * Books the room if it is free for the whole stay. The availability check and the insert
+     * happen under the room's stripe lock, so two concurrent requests for overlapping dates
+     * on the same room cannot both succeed; requests for other rooms do not wait on it.
+     */
+    public Result<Booking> bookRoom(int roomId, int customerId, LocalDate checkIn, LocalDate checkOut) {
+        long started = System.nanoTime();
+        BookingAttemptEvent event = new BookingAttemptEvent();
+        event.begin();
+        Result<Booking> result = tryBookRoom(roomId, customerId, checkIn, checkOut);
+        event.finish(result, customerId, roomId, 1, checkIn, checkOut);
+        metrics.record(Operation.BOOK_ROOM, started);
+        return result;
+    }
 
-            if (midCustomer.getId() == id) {
-                return midCustomer;
-            } else if (midCustomer.getId() < id) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
+    private Result<Booking> tryBookRoom(int roomId, int customerId, LocalDate checkIn, LocalDate checkOut) {
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
+        }
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return Result.invalid("Check-out must be after check-in.");
+        }
+        ReentrantLock roomLock = store.roomLock(roomId);
+        store.readLock().lock();
+        roomLock.lock();
+        try {
+            Customer customer = store.findCustomer(customerId);
+            Room room = store.findRoom(roomId);
+            if (customer == null || room == null) {
+                return Result.notFound("Invalid booking. Check room/customer ID or room availability.");
             }
+            if (!store.availability().isFree(roomId, checkIn, checkOut)) {
+                return Result.conflict("Room " + roomId + " is already booked for part of these dates.");
+            }
+            Booking booking = new Booking(store.nextBookingId(), room, customer, checkIn, checkOut);
+            store.putBooking(booking);
+            persistence.bookingSaved(booking);
+            return Result.ok(booking);
+        } finally {
+            roomLock.unlock();
+            store.readLock().unlock();
         }
-        return null;
     }
 
-    private Room findRoomById(int id) {
-        rooms = mergeSortRooms(rooms);
-        int left = 0;
-        int right = rooms.size() - 1;
-
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            Room midRoom = rooms.get(mid);
+    /**
+     * Books every listed room for the same stay, for one customer, or none of them. All the
+     * rooms' stripe locks are held while they are checked and booked, the booking IDs are
+     * one consecutive block, and the group is persisted with a single write.
+     */
+    public Result<List<Booking>> bookRooms(List<Integer> roomIds, int customerId, LocalDate checkIn, LocalDate checkOut) {
+        long started = System.nanoTime();
+        BookingAttemptEvent event = new BookingAttemptEvent();
+        event.begin();
+        Result<List<Booking>> result = tryBookRooms(roomIds, customerId, checkIn, checkOut);
+        boolean any = roomIds != null && !roomIds.isEmpty();
+        event.finish(result, customerId, any ? roomIds.get(0) : 0, any ? roomIds.size() : 0, checkIn, checkOut);
+        metrics.record(Operation.BOOK_ROOMS, started);
+        return result;
+    }
 
-            if (midRoom.getId() == id) {
-                return midRoom;
-            } else if (midRoom.getId() < id) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
+    private Result<List<Booking>> tryBookRooms(List<Integer> roomIds, int customerId, LocalDate checkIn,
+                                               LocalDate checkOut) {
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
+        }
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return Result.invalid("Check-out must be after check-in.");
+        }
+        if (roomIds == null || roomIds.isEmpty()) {
+            return Result.invalid("No rooms to book.");
+        }
+        int[] ids = roomIds.stream().mapToInt(Integer::intValue).toArray();
+        if (Arrays.stream(ids).distinct().count() != ids.length) {
+            return Result.invalid("A room is listed more than once.");
+        }
+        List<ReentrantLock> roomLocks = store.roomLocks(ids);
+        store.readLock().lock();
+        roomLocks.forEach(ReentrantLock::lock);
+        try {
+            Customer customer = store.findCustomer(customerId);
+            if (customer == null) {
+                return Result.notFound("Customer not found.");
             }
+            Room[] rooms = new Room[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                rooms[i] = store.findRoom(ids[i]);
+                if (rooms[i] == null) {
+                    return Result.notFound("Room with ID " + ids[i] + " not found.");
+                }
+                if (!store.availability().isFree(ids[i], checkIn, checkOut)) {
+                    return Result.conflict("Room " + ids[i] + " is already booked for part of these dates.");
+                }
+            }
+            int firstId = store.nextBookingIds(ids.length);
+            List<Booking> booked = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                Booking booking = new Booking(firstId + i, rooms[i], customer, checkIn, checkOut);
+                store.putBooking(booking);
+                booked.add(booking);
+            }
+            persistence.bookingsSaved(booked);
+            return Result.ok(booked);
+        } finally {
+            roomLocks.forEach(ReentrantLock::unlock);
+            store.readLock().unlock();
         }
-        return null;
     }
 
-    // Merge sort for customers
-    private LinkedList<Customer> mergeSortCustomers(LinkedList<Customer> list) {
-        if (list.size() <= 1) {
-            return list;
+    public Result<Booking> cancelBooking(int bookingId) {
+        long started = System.nanoTime();
+        if (persistence.isReadOnly()) {
+            return Result.conflict(READ_ONLY);
         }
-
-        LinkedList<Customer> left = new LinkedList<>();
-        LinkedList<Customer> right = new LinkedList<>();
-        int middle = list.size() / 2;
-
-        int count = 0;
-        for (Customer c : list) {
-            if (count < middle) {
-                left.add(c);
-            } else {
-                right.add(c);
+        store.readLock().lock();
+        try {
+            Booking booking = store.findBooking(bookingId);
+            if (booking == null) {
+                return Result.notFound("Booking not found.");
+            }
+            ReentrantLock roomLock = store.roomLock(booking.getRoom().getId());
+            roomLock.lock();
+            try {
+                // Re-check under the room lock in case another thread cancelled it first
+                if (store.removeBooking(bookingId) == null) {
+                    return Result.notFound("Booking not found.");
+                }
+                persistence.bookingCancelled(booking);
+                return Result.ok(booking);
+            } finally {
+                roomLock.unlock();
             }
-            count++;
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.CANCEL_BOOKING, started);
         }
-
-        left = mergeSortCustomers(left);
-        right = mergeSortCustomers(right);
-
-        return mergeCustomers(left, right);
     }
 
-    private LinkedList<Customer> mergeCustomers(LinkedList<Customer> left, LinkedList<Customer> right) {
-        LinkedList<Customer> result = new LinkedList<>();
-        while (!left.isEmpty() && !right.isEmpty()) {
-            if (left.getFirst().getId() <= right.getFirst().getId()) {
-                result.add(left.removeFirst());
-            } else {
-                result.add(right.removeFirst());
+    public Booking findBookingById(int id) {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            Booking booking = store.findBooking(id);
+            if (booking == null) {
+                LookupMissEvent.emit("Booking", id);
             }
+            return booking;
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.FIND_BOOKING, started);
         }
-        result.addAll(left);
-        result.addAll(right);
-        return result;
     }
 
-    // Merge sort for rooms
-    private LinkedList<Room> mergeSortRooms(LinkedList<Room> list) {
-        if (list.size() <= 1) {
-            return list;
+    /**
+     * All bookings in ID order, as a copy.
+     */
+    public List<Booking> bookings() {
+        store.readLock().lock();
+        try {
+            return store.bookingsSnapshot();
+        } finally {
+            store.readLock().unlock();
         }
+    }
 
-        LinkedList<Room> left = new LinkedList<>();
-        LinkedList<Room> right = new LinkedList<>();
-        int middle = list.size() / 2;
-
-        int count = 0;
-        for (Room r : list) {
-            if (count < middle) {
-                left.add(r);
-            } else {
-                right.add(r);
+    /**
+     * One page of bookings in ID order, starting after the given booking ID (null for the
+     * first page). Only the bookings on the page are built. A filtered page takes its
+     * candidates from the customer's ledger entry or the room's schedule, so its cost follows
+     * that customer's or room's bookings rather than the size of the table.
+     *
+     * @param roomId only this room's bookings, or null for every room
+     * @param customerId only this customer's bookings, or null for every customer
+     */
+    public Page<Booking> bookingsPage(Integer afterId, int limit, Integer roomId, Integer customerId) {
+        long started = System.nanoTime();
+        int size = pageSize(limit);
+        store.readLock().lock();
+        try {
+            if (roomId == null && customerId == null) {
+                return store.bookings().page(afterId, size);
             }
-            count++;
+            int after = afterId == null ? Integer.MIN_VALUE : afterId;
+            // With one filter every candidate matches, so limit + 1 of them settle the page
+            int max = roomId != null && customerId != null ? Integer.MAX_VALUE : size + 1;
+            int[] candidates = customerId != null
+                    ? store.ledger().bookingIdsAfter(customerId, after, max)
+                    : roomBookingIdsAfter(roomId, after, max);
+            return store.bookings().page(candidates, size, roomId);
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.LIST_PAGE, started);
         }
+    }
 
-        left = mergeSortRooms(left);
-        right = mergeSortRooms(right);
+    // Caller holds the store's read lock
+    private int[] roomBookingIdsAfter(int roomId, int afterId, int max) {
+        ReentrantLock roomLock = store.roomLock(roomId);
+        roomLock.lock();
+        try {
+            RoomSchedule schedule = store.availability().scheduleOf(roomId);
+            return schedule == null ? new int[0] : schedule.bookingIdsAfter(afterId, max);
+        } finally {
+            roomLock.unlock();
+        }
+    }
 
-        return mergeRooms(left, right);
+    /**
+     * The customer's bookings in ID order, from the per-customer index.
+     */
+    public List<Booking> bookingsOfCustomer(int customerId) {
+        store.readLock().lock();
+        try {
+            return store.ledger().bookingsOf(customerId);
+        } finally {
+            store.readLock().unlock();
+        }
     }
 
-    private LinkedList<Room> mergeRooms(LinkedList<Room> left, LinkedList<Room> right) {
-        LinkedList<Room> result = new LinkedList<>();
-        while (!left.isEmpty() && !right.isEmpty()) {
-            if (left.getFirst().getId() <= right.getFirst().getId()) {
-                result.add(left.removeFirst());
-            } else {
-                result.add(right.removeFirst());
-            }
+    /**
+     * The room's bookings in check-in order, from its schedule.
+     */
+    public List<Booking> bookingsOfRoom(int roomId) {
+        ReentrantLock roomLock = store.roomLock(roomId);
+        store.readLock().lock();
+        roomLock.lock();
+        try {
+            return store.stays(roomId);
+        } finally {
+            roomLock.unlock();
+            store.readLock().unlock();
         }
-        result.addAll(left);
-        result.addAll(right);
-        return result;
     }
-    private LinkedList<Booking> mergeSortBookings(LinkedList<Booking> list) {
-        if (list.size() <= 1) {
-            return list;
+
+    /**
+     * Bookings checking in on the day, in ID order.
+     */
+    public List<Booking> arrivals(LocalDate day) {
+        store.readLock().lock();
+        try {
+            return store.bookingDates().arrivals(day);
+        } finally {
+            store.readLock().unlock();
         }
+    }
 
-        LinkedList<Booking> left = new LinkedList<>();
-        LinkedList<Booking> right = new LinkedList<>();
-        int middle = list.size() / 2;
+    /**
+     * Bookings checking out on the day, in ID order.
+     */
+    public List<Booking> departures(LocalDate day) {
+        store.readLock().lock();
+        try {
+            return store.bookingDates().departures(day);
+        } finally {
+            store.readLock().unlock();
+        }
+    }
 
-        int count = 0;
-        for (Booking b : list) {
-            if (count < middle) {
-                left.add(b);
-            } else {
-                right.add(b);
-            }
-            count++;
+    public Result<Bill> generateBill(int customerId) {
+        long started = System.nanoTime();
+        Customer customer = findCustomerById(customerId);
+        if (customer == null) {
+            return Result.notFound("Customer not found.");
         }
+        store.readLock().lock();
+        try {
+            return Result.ok(store.ledger().bill(customer));
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.GENERATE_BILL, started);
+        }
+    }
 
-        left = mergeSortBookings(left);
-        right = mergeSortBookings(right);
+    /**
+     * End-of-day run: the bills of every customer with bookings, in customer ID order,
+     * computed in parallel.
+     */
+    public List<Bill> generateAllBills() {
+        long started = System.nanoTime();
+        store.readLock().lock();
+        try {
+            return store.ledger().billAll(new ArrayList<>(store.customers().ordered()));
+        } finally {
+            store.readLock().unlock();
+            metrics.record(Operation.GENERATE_ALL_BILLS, started);
+        }
+    }
 
-        return mergeBookings(left, right);
+    /**
+     * Writes customers.csv, Room.csv and Booking.csv for the current state into the directory,
+     * whatever the configured persistence.
+     */
+    public void exportCsv(Path dir) throws IOException {
+        List<Customer> customers;
+        List<Room> rooms;
+        List<Booking> bookings;
+        store.readLock().lock();
+        try {
+            customers = new ArrayList<>(store.customers().ordered());
+            rooms = new ArrayList<>(store.rooms().ordered());
+            bookings = store.bookingsSnapshot();
+        } finally {
+            store.readLock().unlock();
+        }
+        Files.createDirectories(dir);
+        new CsvSnapshot(dir).save(customers, rooms, bookings);
     }
 
-    private LinkedList<Booking> mergeBookings(LinkedList<Booking> left, LinkedList<Booking> right) {
-        LinkedList<Booking> result = new LinkedList<>();
-        while (!left.isEmpty() && !right.isEmpty()) {
-            if (left.getFirst().getId() <= right.getFirst().getId()) {
-                result.add(left.removeFirst());
-            } else {
-                result.add(right.removeFirst());
-            }
-        }
-        result.addAll(left);
-        result.addAll(right);
-        return result;
+    /**
+     * Makes every change durable and stops background persistence and metrics work.
+     */
+    @Override
+    public void close() {
+        persistence.close();
+        metrics.close();
     }
 
+    /**
+     * Operation counts and latencies, also registered as MBeans unless turned off in the config.
+     */
+    public HotelMetrics metrics() {
+        return metrics;
+    }
 
+    EntityStore store() {
+        return store;
+    }
 }
-
@@ -0,0 +1,604 @@
+package com.hoteldeck;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * HTTP/JSON front end over {@link HotelDeck}, built on the JDK's {@code com.sun.net.httpserver}
+ * with one virtual thread per request, so thousands of slow clients cost little more than
+ * their sockets.
+ *
+ * <pre>
+ * GET    /customers                 POST /customers        {"id","name","email","phoneNumber"}
+ * GET    /customers/{id}            PUT  /customers/{id}   {"name","email","phoneNumber"}
+ * DELETE /customers/{id}            GET  /customers/{id}/bill
+ * GET    /customers/{id}/bookings   GET  /rooms/{id}/bookings
+ * GET    /customers?email=...  or ?phone=...  or ?name=prefix[&amp;limit=20]   customer search
+ * GET    /rooms                     POST /rooms            {"id","type","price"}
+ * GET    /rooms/{id}                DELETE /rooms/{id}
+ * GET    /rooms?type=Deluxe&amp;minPrice=0&amp;maxPrice=6000[&amp;free=true]   filter, any parameter optional
+ * GET    /rooms/free?checkIn=yyyy-MM-dd&amp;checkOut=yyyy-MM-dd[&amp;type=Double]
+ * GET    /bookings                  POST /bookings         {"roomId","customerId","checkIn","checkOut"}
+ * GET    /bookings/{id}             DELETE /bookings/{id}
+ * GET    /bookings/arrivals?date=yyyy-MM-dd     GET /bookings/departures?date=yyyy-MM-dd
+ * POST   /bookings/group   {"roomIds":[101,102],"customerId","checkIn","checkOut"}   all or nothing
+ * GET    /bills                     every customer's bill, for end-of-day runs
+ * GET    /analytics?from=yyyy-MM-dd&amp;to=yyyy-MM-dd          totals per room type
+ * GET    /analytics/daily?from=yyyy-MM-dd&amp;to=yyyy-MM-dd[&amp;type=Double]   per night
+ * </pre>
+ *
+ * The customer, room and booking lists page by ID with {@code ?after=id&amp;limit=100} (either
+ * optional, limit at most {@value HotelDeck#MAX_PAGE_SIZE}); rooms take their filters too, and
+ * bookings take {@code roomId} and {@code customerId}. A page that is not the last carries an
+ * {@code X-Next-After} header with the ID to ask for the next one after. Unpaged lists are
+ * streamed out a page at a time, so they never copy a whole table.
+ *
+ * Failed operations map {@link Result.Status} to 400, 404 or 409 with {"error": message}. A read
+ * replica (see {@link ReplicaPersistence}) answers every query and refuses changes with 409.
+ *
+ * <p>Over a {@link HotelRouter} the customer routes go to the shared registry (updates and
+ * deletes through the router, so the properties' copies follow), a customer's bookings and
+ * bill and {@code /bills} come from every property, and rooms and bookings live under their
+ * property:
+ *
+ * <pre>
+ * GET    /properties                               the property IDs
+ * GET    /properties/rooms/free?checkIn=yyyy-MM-dd&amp;checkOut=yyyy-MM-dd[&amp;type=Double]   any property
+ * GET    /properties/{pid}/rooms                   POST /properties/{pid}/rooms      {"id","type","price"}
+ * GET    /properties/{pid}/rooms/{id}              DELETE /properties/{pid}/rooms/{id}
+ * GET    /properties/{pid}/bookings                POST /properties/{pid}/bookings   {"roomId","customerId","checkIn","checkOut"}
+ * GET    /properties/{pid}/bookings/{id}           DELETE /properties/{pid}/bookings/{id}
+ * POST   /properties/{pid}/bookings/group   {"roomIds":[101,102],"customerId","checkIn","checkOut"}
+ * </pre>
+ */
+public class HotelHttpServer {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final HotelDeck hotel;
+    private final HotelRouter router;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param backlog pending-connection queue length; size it for the expected connection bursts
+     */
+    public HotelHttpServer(HotelDeck hotel, int port, int backlog) throws IOException {
+        this(hotel, null, port, backlog);
+        server.createContext("/rooms", this::handleRooms);
+        server.createContext("/bookings", this::handleBookings);
+        server.createContext("/bills", this::handleBills);
+        server.createContext("/analytics", this::handleAnalytics);
+    }
+
+    /**
+     * Serves every property of the router, with customers kept in its registry.
+     */
+    public HotelHttpServer(HotelRouter router, int port, int backlog) throws IOException {
+        this(router.registry(), router, port, backlog);
+        server.createContext("/properties", this::handleProperties);
+        server.createContext("/bills", this::handleBills);
+    }
+
+    private HotelHttpServer(HotelDeck hotel, HotelRouter router, int port, int backlog) throws IOException {
+        this.hotel = hotel;
+        this.router = router;
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/customers", this::handleCustomers);
+    }
+
+    /**
+     * Raises the JDK server's connection limits unless they were set on the command line.
+     * Must run before the first server is created, as the JDK reads them once.
+     */
+    public static void tuneForManyConnections() {
+        setDefault("sun.net.httpserver.maxIdleConnections", "1000");
+        setDefault("sun.net.httpserver.idleInterval", "30");
+        setDefault("jdk.httpserver.maxConnections", "10000");
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting connections, gives in-flight exchanges up to the delay to finish,
+     * then shuts the request executor down.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    // Routing
+
+    private void handleCustomers(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1) {
+                switch (method) {
+                    case "GET" -> listCustomers(ex, query(ex));
+                    case "POST" -> {
+                        Map<String, String> body = body(ex);
+                        reply(ex, 201, hotel.addCustomer(intField(body, "id"), body.get("name"), body.get("email"),
+                                body.get("phoneNumber")), Json::customer);
+                    }
+                    default -> methodNotAllowed(ex);
+                }
+                return;
+            }
+            int id = Integer.parseInt(path[1]);
+            if (path.length == 3 && path[2].equals("bill") && method.equals("GET")) {
+                reply(ex, 200, router != null ? router.generateBill(id) : hotel.generateBill(id), Json::bill);
+                return;
+            }
+            if (path.length == 3 && path[2].equals("bookings") && method.equals("GET")) {
+                send(ex, 200, router != null ? Json.array(router.bookingsOfCustomer(id), Json::propertyBooking)
+                        : Json.array(hotel.bookingsOfCustomer(id), Json::booking));
+                return;
+            }
+            if (path.length != 2) {
+                send(ex, 404, Json.error("Not found"));
+                return;
+            }
+            switch (method) {
+                case "GET" -> {
+                    Customer c = hotel.findCustomerById(id);
+                    send(ex, c == null ? 404 : 200, c == null ? Json.error("Customer not found.") : Json.customer(c));
+                }
+                case "PUT" -> {
+                    Map<String, String> body = body(ex);
+                    String name = body.get("name");
+                    String email = body.get("email");
+                    String phone = body.get("phoneNumber");
+                    reply(ex, 200, router != null ? router.updateCustomer(id, name, email, phone)
+                            : hotel.updateCustomer(id, name, email, phone), Json::customer);
+                }
+                case "DELETE" -> reply(ex, 200, router != null ? router.deleteCustomer(id) : hotel.deleteCustomer(id),
+                        Json::customer);
+                default -> methodNotAllowed(ex);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    // Streams every customer unless the query asks for a page, an email, phone or name prefix
+    private void listCustomers(HttpExchange ex, Map<String, String> query) throws IOException {
+        if (query.containsKey("email")) {
+            send(ex, 200, Json.array(hotel.findCustomersByEmail(query.get("email")), Json::customer));
+        } else if (query.containsKey("phone")) {
+            send(ex, 200, Json.array(hotel.findCustomersByPhone(query.get("phone")), Json::customer));
+        } else if (query.containsKey("name")) {
+            String limit = query.get("limit");
+            send(ex, 200, Json.array(hotel.findCustomersByName(query.get("name"), limit == null ? 20 : Integer.parseInt(limit)),
+                    Json::customer));
+        } else if (isPaged(query)) {
+            sendPage(ex, hotel.customersPage(after(query), limit(query), null), Json::customer);
+        } else {
+            streamPages(ex, (after, limit) -> hotel.customersPage(after, limit, null), Json::customer);
+        }
+    }
+
+    // Streams every room unless the query asks for a page or filters by type, price or today's availability
+    private void listRooms(HttpExchange ex, Map<String, String> query) throws IOException {
+        if (query.isEmpty()) {
+            streamPages(ex, (after, limit) -> hotel.roomsPage(after, limit, null, 0, Double.MAX_VALUE), Json::room);
+            return;
+        }
+        String min = query.get("minPrice");
+        String max = query.get("maxPrice");
+        double minPrice = min == null ? 0 : Double.parseDouble(min);
+        double maxPrice = max == null ? Double.MAX_VALUE : Double.parseDouble(max);
+        // Today's availability is kept per type, not in ID order, so it is not paged
+        if (isPaged(query) && !query.containsKey("free")) {
+            sendPage(ex, hotel.roomsPage(after(query), limit(query), query.get("type"), minPrice, maxPrice), Json::room);
+        } else {
+            send(ex, 200, Json.array(hotel.findRooms(query.get("type"), minPrice, maxPrice,
+                    Boolean.parseBoolean(query.get("free"))), Json::room));
+        }
+    }
+
+    // Streams every booking unless the query asks for a page or one room's or customer's
+    private void listBookings(HttpExchange ex, Map<String, String> query) throws IOException {
+        if (query.isEmpty()) {
+            streamPages(ex, (after, limit) -> hotel.bookingsPage(after, limit, null, null), Json::booking);
+            return;
+        }
+        sendPage(ex, hotel.bookingsPage(after(query), limit(query), optionalInt(query, "roomId"),
+                optionalInt(query, "customerId")), Json::booking);
+    }
+
+    private static boolean isPaged(Map<String, String> query) {
+        return query.containsKey("after") || query.containsKey("limit");
+    }
+
+    private static Integer after(Map<String, String> query) {
+        return optionalInt(query, "after");
+    }
+
+    private static int limit(Map<String, String> query) {
+        String limit = query.get("limit");
+        return limit == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(limit);
+    }
+
+    private void handleRooms(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1) {
+                switch (method) {
+                    case "GET" -> listRooms(ex, query(ex));
+                    case "POST" -> {
+                        Map<String, String> body = body(ex);
+                        reply(ex, 201, hotel.addRoom(intField(body, "id"), body.get("type"), doubleField(body, "price")),
+                                Json::room);
+                    }
+                    default -> methodNotAllowed(ex);
+                }
+                return;
+            }
+            if (path.length == 2 && path[1].equals("free") && method.equals("GET")) {
+                Map<String, String> query = query(ex);
+                LocalDate checkIn = dateField(query, "checkIn");
+                LocalDate checkOut = dateField(query, "checkOut");
+                if (!checkOut.isAfter(checkIn)) {
+                    send(ex, 400, Json.error("Check-out must be after check-in."));
+                    return;
+                }
+                send(ex, 200, Json.array(hotel.freeRooms(query.get("type"), checkIn, checkOut), Json::room));
+                return;
+            }
+            if (path.length == 3 && path[2].equals("bookings") && method.equals("GET")) {
+                send(ex, 200, Json.array(hotel.bookingsOfRoom(Integer.parseInt(path[1])), Json::booking));
+                return;
+            }
+            if (path.length != 2) {
+                send(ex, 404, Json.error("Not found"));
+                return;
+            }
+            int id = Integer.parseInt(path[1]);
+            switch (method) {
+                case "GET" -> {
+                    Room r = hotel.findRoomById(id);
+                    send(ex, r == null ? 404 : 200, r == null ? Json.error("Room with ID " + id + " not found.") : Json.room(r));
+                }
+                case "DELETE" -> reply(ex, 200, hotel.deleteRoom(id), Json::room);
+                default -> methodNotAllowed(ex);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    private void handleBookings(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1) {
+                switch (method) {
+                    case "GET" -> listBookings(ex, query(ex));
+                    case "POST" -> {
+                        Map<String, String> body = body(ex);
+                        reply(ex, 201, hotel.bookRoom(intField(body, "roomId"), intField(body, "customerId"),
+                                dateField(body, "checkIn"), dateField(body, "checkOut")), Json::booking);
+                    }
+                    default -> methodNotAllowed(ex);
+                }
+                return;
+            }
+            if (path.length == 2 && path[1].equals("group") && method.equals("POST")) {
+                Map<String, String> body = body(ex);
+                List<Integer> roomIds = new ArrayList<>();
+                for (String id : required(body, "roomIds").split(",")) {
+                    roomIds.add(Integer.parseInt(id.trim()));
+                }
+                reply(ex, 201, hotel.bookRooms(roomIds, intField(body, "customerId"), dateField(body, "checkIn"),
+                        dateField(body, "checkOut")), booked -> Json.array(booked, Json::booking));
+                return;
+            }
+            if (path.length == 2 && method.equals("GET")
+                    && (path[1].equals("arrivals") || path[1].equals("departures"))) {
+                LocalDate day = dateField(query(ex), "date");
+                send(ex, 200, Json.array(path[1].equals("arrivals") ? hotel.arrivals(day) : hotel.departures(day),
+                        Json::booking));
+                return;
+            }
+            if (path.length != 2) {
+                send(ex, 404, Json.error("Not found"));
+                return;
+            }
+            int id = Integer.parseInt(path[1]);
+            switch (method) {
+                case "GET" -> {
+                    Booking b = hotel.findBookingById(id);
+                    send(ex, b == null ? 404 : 200, b == null ? Json.error("Booking not found.") : Json.booking(b));
+                }
+                case "DELETE" -> reply(ex, 200, hotel.cancelBooking(id), Json::booking);
+                default -> methodNotAllowed(ex);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    private void handleBills(HttpExchange ex) throws IOException {
+        if (segments(ex).length != 1) {
+            send(ex, 404, Json.error("Not found"));
+        } else if (!ex.getRequestMethod().equals("GET")) {
+            methodNotAllowed(ex);
+        } else {
+            send(ex, 200, Json.array(router != null ? router.generateAllBills() : hotel.generateAllBills(), Json::bill));
+        }
+    }
+
+    private void handleAnalytics(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        if (!ex.getRequestMethod().equals("GET")) {
+            methodNotAllowed(ex);
+            return;
+        }
+        try {
+            Map<String, String> query = query(ex);
+            LocalDate from = dateField(query, "from");
+            LocalDate to = dateField(query, "to");
+            if (!to.isAfter(from)) {
+                send(ex, 400, Json.error("'to' must be after 'from'."));
+            } else if (path.length == 1) {
+                send(ex, 200, Json.array(hotel.occupancyByType(from, to), Json::occupancy));
+            } else if (path.length == 2 && path[1].equals("daily")) {
+                send(ex, 200, Json.array(hotel.dailyOccupancy(query.get("type"), from, to), Json::occupancy));
+            } else {
+                send(ex, 404, Json.error("Not found"));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    private void handleProperties(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1 && method.equals("GET")) {
+                send(ex, 200, Json.array(router.propertyIds(), String::valueOf));
+                return;
+            }
+            if (path.length == 3 && path[1].equals("rooms") && path[2].equals("free") && method.equals("GET")) {
+                Map<String, String> query = query(ex);
+                LocalDate checkIn = dateField(query, "checkIn");
+                LocalDate checkOut = dateField(query, "checkOut");
+                if (!checkOut.isAfter(checkIn)) {
+                    send(ex, 400, Json.error("Check-out must be after check-in."));
+                    return;
+                }
+                send(ex, 200, Json.array(router.freeRooms(query.get("type"), checkIn, checkOut), Json::propertyRoom));
+                return;
+            }
+            if (path.length < 3) {
+                send(ex, 404, Json.error("Not found"));
+                return;
+            }
+            int pid = Integer.parseInt(path[1]);
+            if (!router.propertyIds().contains(pid)) {
+                send(ex, 404, Json.error("Property " + pid + " not found."));
+            } else if (path[2].equals("rooms")) {
+                handlePropertyRooms(ex, pid, path, method);
+            } else if (path[2].equals("bookings")) {
+                handlePropertyBookings(ex, pid, path, method);
+            } else {
+                send(ex, 404, Json.error("Not found"));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    private void handlePropertyRooms(HttpExchange ex, int pid, String[] path, String method) throws IOException {
+        if (path.length == 3) {
+            switch (method) {
+                case "GET" -> send(ex, 200, Json.array(router.rooms(pid), Json::room));
+                case "POST" -> {
+                    Map<String, String> body = body(ex);
+                    reply(ex, 201, router.addRoom(pid, intField(body, "id"), body.get("type"), doubleField(body, "price")),
+                            Json::room);
+                }
+                default -> methodNotAllowed(ex);
+            }
+            return;
+        }
+        if (path.length != 4) {
+            send(ex, 404, Json.error("Not found"));
+            return;
+        }
+        int id = Integer.parseInt(path[3]);
+        switch (method) {
+            case "GET" -> {
+                Room r = router.findRoomById(pid, id);
+                send(ex, r == null ? 404 : 200, r == null ? Json.error("Room with ID " + id + " not found.") : Json.room(r));
+            }
+            case "DELETE" -> reply(ex, 200, router.deleteRoom(pid, id), Json::room);
+            default -> methodNotAllowed(ex);
+        }
+    }
+
+    private void handlePropertyBookings(HttpExchange ex, int pid, String[] path, String method) throws IOException {
+        if (path.length == 3) {
+            switch (method) {
+                case "GET" -> send(ex, 200, Json.array(router.bookings(pid), Json::booking));
+                case "POST" -> {
+                    Map<String, String> body = body(ex);
+                    reply(ex, 201, router.bookRoom(pid, intField(body, "roomId"), intField(body, "customerId"),
+                            dateField(body, "checkIn"), dateField(body, "checkOut")), Json::booking);
+                }
+                default -> methodNotAllowed(ex);
+            }
+            return;
+        }
+        if (path.length == 4 && path[3].equals("group") && method.equals("POST")) {
+            Map<String, String> body = body(ex);
+            List<Integer> roomIds = new ArrayList<>();
+            for (String id : required(body, "roomIds").split(",")) {
+                roomIds.add(Integer.parseInt(id.trim()));
+            }
+            reply(ex, 201, router.bookRooms(pid, roomIds, intField(body, "customerId"), dateField(body, "checkIn"),
+                    dateField(body, "checkOut")), booked -> Json.array(booked, Json::booking));
+            return;
+        }
+        if (path.length != 4) {
+            send(ex, 404, Json.error("Not found"));
+            return;
+        }
+        int id = Integer.parseInt(path[3]);
+        switch (method) {
+            case "GET" -> {
+                Booking b = router.findBookingById(pid, id);
+                send(ex, b == null ? 404 : 200, b == null ? Json.error("Booking not found.") : Json.booking(b));
+            }
+            case "DELETE" -> reply(ex, 200, router.cancelBooking(pid, id), Json::booking);
+            default -> methodNotAllowed(ex);
+        }
+    }
+
+    private static String[] segments(HttpExchange ex) {
+        String path = ex.getRequestURI().getPath();
+        return path.replaceAll("^/+|/+$", "").split("/+");
+    }
+
+    private static Map<String, String> body(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> params = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing field '" + name + "'");
+        return value;
+    }
+
+    private static int intField(Map<String, String> fields, String name) {
+        return Integer.parseInt(required(fields, name));
+    }
+
+    private static Integer optionalInt(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static double doubleField(Map<String, String> fields, String name) {
+        return Double.parseDouble(required(fields, name));
+    }
+
+    private static LocalDate dateField(Map<String, String> fields, String name) {
+        return LocalDate.parse(required(fields, name));
+    }
+
+    // Response helpers
+
+    private static <T> void reply(HttpExchange ex, int successCode, Result<T> result,
+                                  Function<T, String> writer) throws IOException {
+        if (result.isSuccess()) {
+            send(ex, successCode, writer.apply(result.getValue()));
+            return;
+        }
+        int code = switch (result.getStatus()) {
+            case NOT_FOUND -> 404;
+            case CONFLICT -> 409;
+            default -> 400;
+        };
+        send(ex, code, Json.error(result.getMessage()));
+    }
+
+    private static void methodNotAllowed(HttpExchange ex) throws IOException {
+        send(ex, 405, Json.error("Method not allowed"));
+    }
+
+    private static <T> void sendPage(HttpExchange ex, Page<T> page, Function<T, String> writer) throws IOException {
+        if (page.hasNext()) {
+            ex.getResponseHeaders().set("X-Next-After", String.valueOf(page.getNextAfter()));
+        }
+        send(ex, 200, Json.array(page.getItems(), writer));
+    }
+
+    /**
+     * Sends a whole listing as one JSON array, chunked, fetching it a page at a time so that
+     * the read lock is held for one page at most and only one page is in memory. A change
+     * made between pages shows up if it lands after the page being written.
+     */
+    private static <T> void streamPages(HttpExchange ex, BiFunction<Integer, Integer, Page<T>> fetch,
+                                        Function<T, String> writer) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write('[');
+            boolean first = true;
+            Page<T> page = fetch.apply(null, HotelDeck.MAX_PAGE_SIZE);
+            while (true) {
+                for (T item : page.getItems()) {
+                    if (!first) out.write(',');
+                    out.write(writer.apply(item));
+                    first = false;
+                }
+                if (!page.hasNext()) break;
+                page = fetch.apply(page.getNextAfter(), HotelDeck.MAX_PAGE_SIZE);
+            }
+            out.write(']');
+        }
+    }
+
+    private static void send(HttpExchange ex, int code, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
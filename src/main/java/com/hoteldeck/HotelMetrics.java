@@ -0,0 +1,232 @@
+package com.hoteldeck;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-operation counters and latency histograms for one {@link HotelDeck}, plus dataset
+ * sizes. Recording is a {@link System#nanoTime()} read and a few atomic increments with no
+ * allocation, so it is always on; {@link HotelDeck} and the persistence classes record into
+ * it, and it can be read over JMX and dumped to a text file on a schedule.
+ *
+ * <p>JMX names are {@code com.hoteldeck:type=Hotel,name=<hotel>} for the hotel-wide figures
+ * and {@code com.hoteldeck:type=Operation,hotel=<hotel>,name=<operation>} for each operation;
+ * components such as replication add theirs as {@code com.hoteldeck:type=<component>,name=<hotel>}.
+ * A hotel opened under a name that is already registered takes the name over.
+ */
+public class HotelMetrics implements HotelMetricsMXBean {
+    private static final String DOMAIN = "com.hoteldeck";
+    // Which MBean holds each name, so closing a hotel never unregisters a newer one's
+    private static final Map<ObjectName, Object> OWNERS = new ConcurrentHashMap<>();
+
+    private final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+    private final Map<ObjectName, Object> registered = new HashMap<>();
+    // MBeans of other components, registered as com.hoteldeck:type=<key>,name=<hotel>
+    private final Map<String, Object> components = new LinkedHashMap<>();
+    private EntityStore store;
+    private ScheduledExecutorService dumper;
+    private Path file;
+
+    public HotelMetrics() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationMetrics(operation));
+        }
+    }
+
+    /**
+     * Records one call that began at {@code startedNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void record(Operation operation, long startedNanos) {
+        operations.get(operation).record(System.nanoTime() - startedNanos, 0);
+    }
+
+    /**
+     * Records one call that began at {@code startedNanos} and wrote {@code bytes} to disk.
+     */
+    public void record(Operation operation, long startedNanos, long bytes) {
+        operations.get(operation).record(System.nanoTime() - startedNanos, bytes);
+    }
+
+    public OperationMetrics operation(Operation operation) {
+        return operations.get(operation);
+    }
+
+    /**
+     * Supplies the dataset-size gauges.
+     */
+    void attach(EntityStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Adds another component's MBean, such as replication status, to those {@link #register}
+     * registers.
+     */
+    void addComponent(String type, Object mbean) {
+        components.put(type, mbean);
+    }
+
+    @Override
+    public int getCustomers() {
+        return store == null ? 0 : store.customers().size();
+    }
+
+    @Override
+    public int getRooms() {
+        return store == null ? 0 : store.rooms().size();
+    }
+
+    @Override
+    public int getBookings() {
+        return store == null ? 0 : store.bookings().size();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        long bytes = 0;
+        for (OperationMetrics metrics : operations.values()) {
+            bytes += metrics.getBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Registers the MBeans with the platform MBean server under the hotel's name.
+     */
+    public void register(String hotel) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            registerOne(server, new ObjectName(DOMAIN + ":type=Hotel,name=" + hotel), this);
+            for (OperationMetrics metrics : operations.values()) {
+                registerOne(server, new ObjectName(DOMAIN + ":type=Operation,hotel=" + hotel + ",name="
+                        + metrics.getName()), metrics);
+            }
+            for (Map.Entry<String, Object> component : components.entrySet()) {
+                registerOne(server, new ObjectName(DOMAIN + ":type=" + component.getKey() + ",name=" + hotel),
+                        component.getValue());
+            }
+        } catch (JMException e) {
+            System.out.println("Error registering metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    private void registerOne(MBeanServer server, ObjectName name, Object mbean) throws JMException {
+        try {
+            server.registerMBean(mbean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(mbean, name);
+        }
+        OWNERS.put(name, mbean);
+        registered.put(name, mbean);
+    }
+
+    /**
+     * Rewrites the file with {@link #report()} every {@code intervalSeconds}, and once more
+     * on {@link #close()}.
+     */
+    public void dumpTo(Path file, long intervalSeconds) {
+        this.file = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hoteldeck-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleWithFixedDelay(this::dumpQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump(file);
+        } catch (IOException e) {
+            System.out.println("Error writing metrics file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the report to a temporary sibling and moves it over the file.
+     */
+    public void dump(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(report());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A plain-text report: the time, the dataset sizes and one line per operation that has
+     * been called, with latencies in microseconds.
+     */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("time=").append(Instant.now()).append('\n');
+        out.append("customers=").append(getCustomers()).append(" rooms=").append(getRooms())
+                .append(" bookings=").append(getBookings()).append(" bytesWritten=").append(getBytesWritten())
+                .append('\n');
+        for (OperationMetrics m : operations.values()) {
+            if (m.getCount() == 0) continue;
+            out.append(String.format(Locale.ROOT, "%s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f",
+                    m.getName(), m.getCount(), m.getMeanMicros(), m.getP50Micros(), m.getP90Micros(),
+                    m.getP99Micros(), m.getP999Micros(), m.getMaxMicros()));
+            if (m.getBytes() > 0) {
+                out.append(" bytes=").append(m.getBytes());
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Stops the file dump after writing it one last time, and unregisters the MBeans.
+     */
+    public void close() {
+        if (dumper != null) {
+            dumper.shutdown();
+            try {
+                dumper.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dumpQuietly();
+            dumper = null;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registered.forEach((name, mbean) -> {
+            if (OWNERS.remove(name, mbean)) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    // Unregistered by someone else in the meantime
+                }
+            }
+        });
+        registered.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hoteldeck;
+
+/**
+ * Hotel-wide figures as seen in JMX, under {@code com.hoteldeck:type=Hotel,name=<name>}.
+ */
+public interface HotelMetricsMXBean {
+
+    int getCustomers();
+
+    int getRooms();
+
+    int getBookings();
+
+    /**
+     * Bytes written by every persistence operation together.
+     */
+    long getBytesWritten();
+
+    /**
+     * Resets every operation's counters.
+     */
+    void reset();
+}
@@ -0,0 +1,353 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Partitioned deployment for many properties: one {@link HotelDeck} shard per property, each
+ * with its own data directory ({@code <dataDir>/property-<id>}), and a shared customer
+ * registry ({@code <dataDir>/customers}) that is the master copy of every customer.
+ *
+ * <p>Room and booking operations are routed to the property's shard and called on the
+ * caller's thread; a shard is thread-safe, so reads and bookings for different rooms run in
+ * parallel as they would on a single hotel. A shard keeps a copy of each customer who has
+ * booked there, refreshed from the registry on every booking and whenever the customer is
+ * updated through the router; a customer is deleted only once no property holds bookings
+ * for them. Queries across properties are sent to every shard at once, each on a virtual
+ * thread, and the answers merged. Booking IDs are per property, so a booking is named by
+ * both IDs.
+ */
+public class HotelRouter implements AutoCloseable {
+    /**
+     * A room and the property it belongs to.
+     */
+    public record PropertyRoom(int propertyId, Room room) {
+    }
+
+    /**
+     * A booking and the property it was made at.
+     */
+    public record PropertyBooking(int propertyId, Booking booking) {
+    }
+
+    private final HotelDeck registry;
+    private final Map<Integer, HotelDeck> shards = new LinkedHashMap<>();
+    private final ExecutorService fanOutThreads = Executors.newVirtualThreadPerTaskExecutor();
+    // Bookings hold the read lock; updating or deleting a registry customer holds the write
+    // lock, so no booking can copy stale details into a shard or book for a deleted customer
+    private final ReentrantReadWriteLock customerLock = new ReentrantReadWriteLock();
+
+    /**
+     * Opens the registry and every property's shard, the shards in parallel. If any of them
+     * fails to open, the ones that did are closed again before the failure is thrown.
+     */
+    public HotelRouter(HotelConfig config) {
+        registry = new HotelDeck(derive(config, config.getDataDir().resolve("customers"), "customers"));
+        try {
+            Map<Integer, HotelConfig> shardConfigs = new LinkedHashMap<>();
+            for (int propertyId : config.getPropertyIds()) {
+                shardConfigs.putIfAbsent(propertyId, derive(config,
+                        config.getDataDir().resolve("property-" + propertyId), "property-" + propertyId));
+            }
+            Map<Integer, CompletableFuture<HotelDeck>> loading = new LinkedHashMap<>();
+            shardConfigs.forEach((propertyId, shardConfig) -> loading.put(propertyId,
+                    CompletableFuture.supplyAsync(() -> new HotelDeck(shardConfig), fanOutThreads)));
+            // Wait for every shard, so each one that opened is known and can be closed
+            RuntimeException failure = null;
+            for (Map.Entry<Integer, CompletableFuture<HotelDeck>> entry : loading.entrySet()) {
+                try {
+                    shards.put(entry.getKey(), entry.getValue().join());
+                } catch (RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure != null) throw failure;
+        } catch (RuntimeException e) {
+            closeAll();
+            throw e;
+        }
+    }
+
+    // The shard's settings: its own directory and metrics names, everything else shared
+    private static HotelConfig derive(HotelConfig config, Path dir, String name) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data directory " + dir, e);
+        }
+        HotelConfig derived = config.copy();
+        derived.setDataDir(dir);
+        derived.setMetricsName(config.getMetricsName() + "-" + name);
+        if (config.getMetricsFile() != null) {
+            Path file = config.getMetricsFile();
+            derived.setMetricsFile(file.resolveSibling(name + "-" + file.getFileName()));
+        }
+        derived.setPropertyIds(new ArrayList<>());
+        derived.setReplicationPort(0);
+        derived.setReplicaOf(null);
+        return derived;
+    }
+
+    public List<Integer> propertyIds() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    /**
+     * The shared customer registry. Add and look up customers here; update and delete them
+     * through the router, so the shards' copies follow.
+     */
+    public HotelDeck registry() {
+        return registry;
+    }
+
+    /**
+     * Calls the operation on the property's shard from this thread, or returns null if there
+     * is no such property.
+     */
+    public <T> T call(int propertyId, Function<HotelDeck, T> operation) {
+        HotelDeck hotel = shards.get(propertyId);
+        return hotel == null ? null : operation.apply(hotel);
+    }
+
+    private static <T> Result<T> orNotFound(int propertyId, Result<T> result) {
+        return result != null ? result : Result.notFound("Property " + propertyId + " not found.");
+    }
+
+    private <T> Result<T> route(int propertyId, Function<HotelDeck, Result<T>> operation) {
+        return orNotFound(propertyId, call(propertyId, operation));
+    }
+
+    // Runs the operation on every shard at once and collects the answers in property order
+    private <T> List<T> fanOut(BiFunction<Integer, HotelDeck, List<T>> operation) {
+        List<CompletableFuture<List<T>>> answers = new ArrayList<>(shards.size());
+        shards.forEach((propertyId, hotel) -> answers.add(
+                CompletableFuture.supplyAsync(() -> operation.apply(propertyId, hotel), fanOutThreads)));
+        List<T> merged = new ArrayList<>();
+        for (CompletableFuture<List<T>> answer : answers) {
+            merged.addAll(answer.join());
+        }
+        return merged;
+    }
+
+    // Customers
+
+    /**
+     * Updates the customer in the registry and then every shard's copy of them.
+     */
+    public Result<Customer> updateCustomer(int id, String name, String email, String phone) {
+        customerLock.writeLock().lock();
+        try {
+            Result<Customer> result = registry.updateCustomer(id, name, email, phone);
+            if (result.isSuccess()) {
+                fanOut((propertyId, hotel) -> {
+                    hotel.refreshCustomer(id, name, email, phone);
+                    return List.of();
+                });
+            }
+            return result;
+        } finally {
+            customerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the customer from the registry and every shard, or refuses while any property
+     * still has bookings for them.
+     */
+    public Result<Customer> deleteCustomer(int id) {
+        customerLock.writeLock().lock();
+        try {
+            List<Integer> booked = fanOut((propertyId, hotel) ->
+                    hotel.hasBookings(id) ? List.of(propertyId) : List.of());
+            if (!booked.isEmpty()) {
+                return Result.conflict("Customer has bookings at properties " + booked + ".");
+            }
+            Result<Customer> result = registry.deleteCustomer(id);
+            if (result.isSuccess()) {
+                // Shards the customer never booked at have no copy; their answer is ignored
+                fanOut((propertyId, hotel) -> {
+                    hotel.deleteCustomer(id);
+                    return List.of();
+                });
+            }
+            return result;
+        } finally {
+            customerLock.writeLock().unlock();
+        }
+    }
+
+    // Rooms
+
+    public Result<Room> addRoom(int propertyId, int id, String type, double price) {
+        return route(propertyId, hotel -> hotel.addRoom(id, type, price));
+    }
+
+    public Result<Room> deleteRoom(int propertyId, int id) {
+        return route(propertyId, hotel -> hotel.deleteRoom(id));
+    }
+
+    public Room findRoomById(int propertyId, int id) {
+        return call(propertyId, hotel -> hotel.findRoomById(id));
+    }
+
+    public List<Room> rooms(int propertyId) {
+        List<Room> rooms = call(propertyId, HotelDeck::rooms);
+        return rooms != null ? rooms : new ArrayList<>();
+    }
+
+    /**
+     * Rooms free for the whole stay at any property, by property and then room ID.
+     */
+    public List<PropertyRoom> freeRooms(String type, LocalDate checkIn, LocalDate checkOut) {
+        return fanOut((propertyId, hotel) -> hotel.freeRooms(type, checkIn, checkOut).stream()
+                .map(room -> new PropertyRoom(propertyId, room)).toList());
+    }
+
+    // Bookings
+
+    /**
+     * Books a room at the property for a customer from the registry.
+     */
+    public Result<Booking> bookRoom(int propertyId, int roomId, int customerId, LocalDate checkIn, LocalDate checkOut) {
+        customerLock.readLock().lock();
+        try {
+            Customer customer = registry.findCustomerById(customerId);
+            if (customer == null) {
+                return Result.notFound("Customer not found.");
+            }
+            return route(propertyId, hotel -> {
+                sync(hotel, customer);
+                return hotel.bookRoom(roomId, customerId, checkIn, checkOut);
+            });
+        } finally {
+            customerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Books every listed room at the property, or none of them, for a customer from the registry.
+     */
+    public Result<List<Booking>> bookRooms(int propertyId, List<Integer> roomIds, int customerId, LocalDate checkIn,
+                                           LocalDate checkOut) {
+        customerLock.readLock().lock();
+        try {
+            Customer customer = registry.findCustomerById(customerId);
+            if (customer == null) {
+                return Result.notFound("Customer not found.");
+            }
+            return route(propertyId, hotel -> {
+                sync(hotel, customer);
+                return hotel.bookRooms(roomIds, customerId, checkIn, checkOut);
+            });
+        } finally {
+            customerLock.readLock().unlock();
+        }
+    }
+
+    private static void sync(HotelDeck hotel, Customer customer) {
+        hotel.syncCustomer(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhoneNumber());
+    }
+
+    public Result<Booking> cancelBooking(int propertyId, int bookingId) {
+        return route(propertyId, hotel -> hotel.cancelBooking(bookingId));
+    }
+
+    public Booking findBookingById(int propertyId, int id) {
+        return call(propertyId, hotel -> hotel.findBookingById(id));
+    }
+
+    public List<Booking> bookings(int propertyId) {
+        List<Booking> bookings = call(propertyId, HotelDeck::bookings);
+        return bookings != null ? bookings : new ArrayList<>();
+    }
+
+    /**
+     * The customer's bookings at every property, by check-in date.
+     */
+    public List<PropertyBooking> bookingsOfCustomer(int customerId) {
+        List<PropertyBooking> merged = fanOut((propertyId, hotel) -> hotel.bookingsOfCustomer(customerId).stream()
+                .map(booking -> new PropertyBooking(propertyId, booking)).toList());
+        merged.sort(Comparator.comparing((PropertyBooking b) -> b.booking().getCheckInDate())
+                .thenComparingInt(PropertyBooking::propertyId));
+        return merged;
+    }
+
+    // Billing
+
+    /**
+     * The customer's bill across every property: each shard bills its own bookings and the
+     * lines are merged in property order, each tagged with its property.
+     */
+    public Result<Bill> generateBill(int customerId) {
+        Customer customer = registry.findCustomerById(customerId);
+        if (customer == null) {
+            return Result.notFound("Customer not found.");
+        }
+        // A shard the customer never booked at has no copy of them and so no lines
+        List<Bill.Line> lines = fanOut((propertyId, hotel) -> {
+            Result<Bill> bill = hotel.generateBill(customerId);
+            return bill.isSuccess() ? atProperty(propertyId, bill.getValue().getLines()) : List.of();
+        });
+        return Result.ok(new Bill(customer, lines));
+    }
+
+    /**
+     * End-of-day run across every property: each shard bills its customers in parallel, and
+     * the bills are merged per customer into one, in customer ID order, lines in property order.
+     */
+    public List<Bill> generateAllBills() {
+        List<Bill> perProperty = fanOut((propertyId, hotel) -> hotel.generateAllBills().stream()
+                .map(bill -> new Bill(bill.getCustomer(), atProperty(propertyId, bill.getLines()))).toList());
+        Map<Integer, List<Bill.Line>> lines = new TreeMap<>();
+        Map<Integer, Customer> customers = new HashMap<>();
+        for (Bill bill : perProperty) {
+            int customerId = bill.getCustomer().getId();
+            lines.computeIfAbsent(customerId, id -> new ArrayList<>()).addAll(bill.getLines());
+            customers.putIfAbsent(customerId, bill.getCustomer());
+        }
+        List<Bill> merged = new ArrayList<>(lines.size());
+        lines.forEach((customerId, customerLines) -> {
+            // The registry holds the current details; a shard's copy may be older
+            Customer customer = registry.findCustomerById(customerId);
+            merged.add(new Bill(customer != null ? customer : customers.get(customerId), customerLines));
+        });
+        return merged;
+    }
+
+    private static List<Bill.Line> atProperty(int propertyId, List<Bill.Line> lines) {
+        return lines.stream().map(line -> line.atProperty(propertyId)).toList();
+    }
+
+    /**
+     * Closes every shard, in parallel, then the registry.
+     */
+    @Override
+    public void close() {
+        closeAll();
+    }
+
+    private void closeAll() {
+        fanOut((propertyId, hotel) -> {
+            hotel.close();
+            return List.of();
+        });
+        fanOutThreads.shutdown();
+        registry.close();
+    }
+}
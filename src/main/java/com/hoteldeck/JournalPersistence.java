@@ -0,0 +1,399 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead journal persistence. Each change appends one line to {@code hoteldeck.journal};
+ * on startup the journal is replayed on top of the last snapshot (CSV or binary, see
+ * {@link SnapshotFormat}). A background task periodically writes a fresh snapshot and
+ * discards the journal it covers.
+ *
+ * <p>Journal lines reuse the CSV row layout behind a one-letter tag: upper case puts an
+ * entity ({@code C}, {@code R}, {@code B}), lower case removes it by ID ({@code c}, {@code r},
+ * {@code b}). Every record carries the full state it sets, so replaying a record over a
+ * snapshot that already contains it is harmless.
+ */
+public class JournalPersistence implements Persistence {
+    public static final String JOURNAL_FILE = "hoteldeck.journal";
+    static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final Snapshot snapshot;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long compactIntervalSeconds;
+    private final long compactThresholdBytes;
+    private final ScheduledExecutorService background;
+    private final HotelMetrics metrics;
+    // Guards the channel and the counters below; appends arrive from many threads
+    private final Object lock = new Object();
+
+    private EntityStore store;
+    private FileChannel channel;
+    private long journalBytes;
+    private boolean unsynced;
+    private boolean compactionQueued;
+    // Records held back by an open batch, written by endBatch
+    private StringBuilder batch;
+
+    public JournalPersistence(Snapshot snapshot, Path dataDir, HotelConfig config) {
+        this(snapshot, dataDir, config, null);
+    }
+
+    /**
+     * @param metrics where appends, syncs and compactions are timed, or null
+     */
+    public JournalPersistence(Snapshot snapshot, Path dataDir, HotelConfig config, HotelMetrics metrics) {
+        this.snapshot = snapshot;
+        this.metrics = metrics;
+        this.journalFile = dataDir.resolve(JOURNAL_FILE);
+        this.compactingFile = dataDir.resolve(JOURNAL_FILE + COMPACTING_SUFFIX);
+        this.fsyncPolicy = config.getFsyncPolicy();
+        this.compactThresholdBytes = config.getCompactThresholdBytes();
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hoteldeck-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        this.fsyncIntervalMillis = config.getFsyncIntervalMillis();
+        this.compactIntervalSeconds = config.getCompactIntervalSeconds();
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        snapshot.load(store);
+        replay(compactingFile);
+        replay(journalFile);
+        try {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            journalBytes = channel.size();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open journal " + journalFile, e);
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            background.scheduleWithFixedDelay(this::syncIfNeeded, fsyncIntervalMillis, fsyncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        background.scheduleWithFixedDelay(this::compactQuietly, compactIntervalSeconds, compactIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Replays every newline-terminated record in the file. An unterminated final line is an
+     * append that was cut short by a crash and is skipped.
+     */
+    private int replay(Path file) {
+        if (!Files.exists(file)) return 0;
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        int count = 0;
+        try {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int start = 0;
+            int end;
+            while ((end = content.indexOf('\n', start)) >= 0) {
+                if (apply(store, content.substring(start, end))) {
+                    count++;
+                }
+                start = end + 1;
+            }
+        } catch (IOException e) {
+            System.out.println("Error replaying journal: " + e.getMessage());
+        }
+        event.finish("journalReplay", file, count);
+        return count;
+    }
+
+    /**
+     * Applies one journal line to the store. Returns false for a line that cannot be parsed.
+     */
+    static boolean apply(EntityStore store, String line) {
+        String[] data = line.split(",");
+        if (data.length < 2 || data[0].length() != 1) return false;
+        try {
+            switch (data[0].charAt(0)) {
+                case 'C' -> {
+                    if (data.length < 5) return false;
+                    Customer customer = CsvSnapshot.parseCustomer(data, 1);
+                    Customer existing = store.findCustomer(customer.getId());
+                    if (existing != null) {
+                        store.updateCustomer(existing, customer.getName(), customer.getEmail(),
+                                customer.getPhoneNumber());
+                    } else {
+                        store.putCustomer(customer);
+                    }
+                }
+                case 'c' -> store.removeCustomer(Integer.parseInt(data[1]));
+                case 'R' -> {
+                    if (data.length < 5) return false;
+                    Room room = CsvSnapshot.parseRoom(data, 1);
+                    Room existing = store.findRoom(room.getId());
+                    if (existing != null) {
+                        existing.setType(room.getType());
+                        existing.setPrice(room.getPrice());
+                        // Re-file it so the calendar and analytics pick up the new type and price
+                        store.putRoom(existing);
+                    } else {
+                        store.putRoom(room);
+                    }
+                }
+                case 'r' -> store.removeRoom(Integer.parseInt(data[1]));
+                case 'B' -> {
+                    if (data.length < 6) return false;
+                    Booking booking = CsvSnapshot.parseBooking(data, 1, store);
+                    if (!store.containsBooking(booking.getId())) {
+                        store.putBooking(booking);
+                    }
+                }
+                case 'b' -> store.removeBooking(Integer.parseInt(data[1]));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    static String customerRecord(Customer customer) {
+        return "C," + CsvSnapshot.formatCustomer(customer);
+    }
+
+    static String roomRecord(Room room) {
+        return "R," + CsvSnapshot.formatRoom(room);
+    }
+
+    static String bookingRecord(Booking booking) {
+        return "B," + CsvSnapshot.formatBooking(booking);
+    }
+
+    @Override
+    public void customerSaved(Customer customer) {
+        append(customerRecord(customer));
+    }
+
+    @Override
+    public void customerDeleted(int customerId) {
+        append("c," + customerId);
+    }
+
+    @Override
+    public void roomSaved(Room room) {
+        append(roomRecord(room));
+    }
+
+    @Override
+    public void roomDeleted(int roomId) {
+        append("r," + roomId);
+    }
+
+    @Override
+    public void bookingSaved(Booking booking) {
+        append(bookingRecord(booking));
+    }
+
+    @Override
+    public void bookingsSaved(List<Booking> bookings) {
+        StringBuilder records = new StringBuilder(bookings.size() * 48);
+        for (Booking booking : bookings) {
+            if (!records.isEmpty()) {
+                records.append('\n');
+            }
+            records.append(bookingRecord(booking));
+        }
+        append(records.toString());
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking) {
+        append("b," + booking.getId());
+    }
+
+    @Override
+    public void beginBatch() {
+        synchronized (lock) {
+            batch = new StringBuilder();
+        }
+    }
+
+    /**
+     * Appends the batch's records with one write and, under {@link FsyncPolicy#ALWAYS}, one fsync.
+     */
+    @Override
+    public void endBatch() {
+        synchronized (lock) {
+            String records = batch.toString();
+            batch = null;
+            if (!records.isEmpty()) {
+                write(records);
+            }
+        }
+    }
+
+    private void append(String record) {
+        synchronized (lock) {
+            if (batch != null) {
+                batch.append(record).append('\n');
+            } else {
+                write(record + "\n");
+            }
+        }
+    }
+
+    // Caller holds the journal lock
+    private void write(String records) {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                journalBytes += channel.write(buffer);
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                channel.force(false);
+            } else {
+                unsynced = true;
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+            return;
+        }
+        record(Operation.JOURNAL_APPEND, started, buffer.limit());
+        event.finish(Operation.JOURNAL_APPEND, journalFile, buffer.limit());
+        if (journalBytes >= compactThresholdBytes && !compactionQueued) {
+            compactionQueued = true;
+            background.execute(this::compactQuietly);
+        }
+    }
+
+    private void syncIfNeeded() {
+        synchronized (lock) {
+            if (!unsynced) return;
+            try {
+                long started = System.nanoTime();
+                PersistenceWriteEvent event = new PersistenceWriteEvent();
+                event.begin();
+                channel.force(false);
+                unsynced = false;
+                record(Operation.JOURNAL_SYNC, started, 0);
+                event.finish(Operation.JOURNAL_SYNC, journalFile, 0);
+            } catch (IOException e) {
+                System.out.println("Error syncing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot. The journal is rotated aside under the store's
+     * write lock together with a copy of the tables; the snapshot is then written without holding
+     * the lock, and the rotated journal is deleted only once the snapshot is in place.
+     */
+    public void compact() throws IOException {
+        long started = System.nanoTime();
+        List<Customer> customers;
+        List<Room> rooms;
+        List<Booking> bookings;
+        store.writeLock().lock();
+        try {
+            synchronized (lock) {
+                compactionQueued = false;
+                if (journalBytes == 0 && !Files.exists(compactingFile)) return;
+                customers = new ArrayList<>(store.customers().ordered());
+                rooms = new ArrayList<>(store.rooms().ordered());
+                bookings = store.bookingsSnapshot();
+                rotate();
+            }
+        } finally {
+            store.writeLock().unlock();
+        }
+        snapshot.save(customers, rooms, bookings);
+        Files.deleteIfExists(compactingFile);
+        record(Operation.JOURNAL_COMPACT, started, 0);
+    }
+
+    private void record(Operation operation, long started, long bytes) {
+        if (metrics != null) {
+            metrics.record(operation, started, bytes);
+        }
+    }
+
+    // Caller holds the store's write lock and the journal lock
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        if (Files.exists(compactingFile)) {
+            // A previous compaction failed before its snapshot landed; keep its records too
+            Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, compactingFile);
+        }
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        journalBytes = 0;
+        unsynced = false;
+    }
+
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            try {
+                long started = System.nanoTime();
+                PersistenceWriteEvent event = new PersistenceWriteEvent();
+                event.begin();
+                channel.force(false);
+                unsynced = false;
+                record(Operation.JOURNAL_SYNC, started, 0);
+                event.finish(Operation.JOURNAL_SYNC, journalFile, 0);
+            } catch (IOException e) {
+                System.out.println("Error syncing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compacts one last time so a clean shutdown leaves an up-to-date snapshot behind.
+     */
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactQuietly();
+        synchronized (lock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Error closing journal: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.hoteldeck;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Just enough JSON for the HTTP front end: writers for the entity types and a reader for
+ * flat request objects whose values are strings, numbers or booleans.
+ */
+public final class Json {
+    private Json() {
+    }
+
+    public static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static String customer(Customer c) {
+        return "{\"id\":" + c.getId() + ",\"name\":" + quote(c.getName()) + ",\"email\":" + quote(c.getEmail()) +
+                ",\"phoneNumber\":" + quote(c.getPhoneNumber()) + "}";
+    }
+
+    public static String room(Room r) {
+        return "{\"id\":" + r.getId() + ",\"type\":" + quote(r.getType()) + ",\"price\":" + r.getPrice() + "}";
+    }
+
+    public static String booking(Booking b) {
+        return "{\"id\":" + b.getId() + ",\"roomId\":" + b.getRoom().getId() + ",\"customerId\":" + b.getCustomer().getId() +
+                ",\"checkInDate\":\"" + b.getCheckInDate() + "\",\"checkOutDate\":\"" + b.getCheckOutDate() + "\"}";
+    }
+
+    public static String propertyRoom(HotelRouter.PropertyRoom r) {
+        return "{\"propertyId\":" + r.propertyId() + "," + room(r.room()).substring(1);
+    }
+
+    public static String propertyBooking(HotelRouter.PropertyBooking b) {
+        return "{\"propertyId\":" + b.propertyId() + "," + booking(b.booking()).substring(1);
+    }
+
+    public static String bill(Bill bill) {
+        StringBuilder sb = new StringBuilder("{\"customerId\":").append(bill.getCustomer().getId()).append(",\"lines\":[");
+        List<Bill.Line> lines = bill.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            Bill.Line line = lines.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('{');
+            if (line.getPropertyId() != null) {
+                sb.append("\"propertyId\":").append(line.getPropertyId()).append(',');
+            }
+            sb.append("\"bookingId\":").append(line.getBookingId())
+                    .append(",\"roomId\":").append(line.getRoomId())
+                    .append(",\"nights\":").append(line.getNights())
+                    .append(",\"cost\":").append(line.getCost()).append('}');
+        }
+        return sb.append("],\"total\":").append(bill.getTotal()).append('}').toString();
+    }
+
+    public static String occupancy(OccupancyAnalytics.Summary s) {
+        return "{\"type\":" + quote(s.getType()) + ",\"from\":\"" + s.getFrom() + "\",\"days\":" + s.getDays() +
+                ",\"rooms\":" + s.getRooms() + ",\"roomNights\":" + s.getRoomNights() +
+                ",\"occupancyRate\":" + s.getOccupancyRate() + ",\"revenue\":" + s.getRevenue() + "}";
+    }
+
+    public static <T> String array(List<T> items, Function<T, String> writer) {
+        StringBuilder sb = new StringBuilder(items.size() * 64 + 2).append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(writer.apply(items.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    public static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * Parses a flat JSON object. Every value comes back as its text: strings unescaped,
+     * numbers, booleans and null as written, and arrays of numbers as their items joined
+     * by commas.
+     *
+     * @throws IllegalArgumentException if the input is not a flat object
+     */
+    public static Map<String, String> parseObject(String text) {
+        Reader r = new Reader(text);
+        Map<String, String> fields = new HashMap<>();
+        r.skipSpace();
+        r.expect('{');
+        r.skipSpace();
+        if (r.peek() == '}') {
+            r.pos++;
+            return fields;
+        }
+        while (true) {
+            r.skipSpace();
+            String key = r.string();
+            r.skipSpace();
+            r.expect(':');
+            r.skipSpace();
+            fields.put(key, switch (r.peek()) {
+                case '"' -> r.string();
+                case '[' -> r.literals();
+                default -> r.literal();
+            });
+            r.skipSpace();
+            char c = r.next();
+            if (c == '}') break;
+            if (c != ',') throw new IllegalArgumentException("Expected ',' or '}' at " + (r.pos - 1));
+        }
+        return fields;
+    }
+
+    private static final class Reader {
+        private final String s;
+        private int pos;
+
+        Reader(String s) {
+            this.s = s;
+        }
+
+        char peek() {
+            if (pos >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+            return s.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+        }
+
+        void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw new IllegalArgumentException("Bad unicode escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            }
+        }
+
+        // A flat array of numbers or other literals, returned as "1,2,3"
+        String literals() {
+            expect('[');
+            StringBuilder sb = new StringBuilder();
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return "";
+            }
+            while (true) {
+                skipSpace();
+                if (!sb.isEmpty()) sb.append(',');
+                sb.append(literal());
+                skipSpace();
+                char c = next();
+                if (c == ']') return sb.toString();
+                if (c != ',') throw new IllegalArgumentException("Expected ',' or ']' at " + (pos - 1));
+            }
+        }
+
+        String literal() {
+            int start = pos;
+            while (pos < s.length() && ",}] \t\r\n".indexOf(s.charAt(pos)) < 0) pos++;
+            if (start == pos) throw new IllegalArgumentException("Expected a value at " + start);
+            return s.substring(start, pos);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hoteldeck;
+
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of loading the hotel at startup: a CSV file, the binary snapshot or the
+ * journal replay.
+ */
+@Name("com.hoteldeck.LoadPhase")
+@Label("Load Phase")
+@Category({"Hotel Deck", "Persistence"})
+@StackTrace(false)
+public class LoadPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("File")
+    String file;
+
+    @Label("Rows")
+    long rows;
+
+    void finish(String phase, Path file, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.phase = phase;
+            this.file = file.toString();
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hoteldeck;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup by ID that found nothing. Recorded with its stack trace, which shows the caller.
+ */
+@Name("com.hoteldeck.LookupMiss")
+@Label("Lookup Miss")
+@Category({"Hotel Deck", "Lookups"})
+@StackTrace(true)
+public class LookupMissEvent extends jdk.jfr.Event {
+    @Label("Entity")
+    String entity;
+
+    @Label("ID")
+    int id;
+
+    static void emit(String entity, int id) {
+        LookupMissEvent event = new LookupMissEvent();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.id = id;
+            event.commit();
+        }
+    }
+}
@@ -1,11 +1,35 @@
 package com.hoteldeck;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class Main {
-    public static void main(String[] args) {
-        HotelDeck hotel = new HotelDeck();
+    public static void main(String[] args) throws IOException {
+        HotelConfig config = HotelConfig.fromSystemProperties();
+        if (args.length > 0 && args[0].equals("--http")) {
+            config.setHttpPort(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+        }
+        if (args.length > 1 && args[0].equals("--export-csv")) {
+            try (HotelDeck hotel = new HotelDeck(config)) {
+                hotel.exportCsv(Paths.get(args[1]));
+            }
+            System.out.println("Exported CSV files to " + args[1]);
+            return;
+        }
+        if (!config.getPropertyIds().isEmpty()) {
+            serveProperties(config);
+            return;
+        }
+        HotelDeck hotel = new HotelDeck(config);
+        reportLoad(hotel);
+        if (config.getHttpPort() > 0) {
+            serveHttp(hotel, config);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
+        ConsoleMenu menu = new ConsoleMenu(hotel, scanner);
         int choice;
 
         do {
@@ -21,25 +45,86 @@ public class Main {
             System.out.println("9. Cancel Booking");
             System.out.println("10. View Bookings");
             System.out.println("11. Generate Bill");
+            System.out.println("12. Find Free Rooms");
+            System.out.println("13. Bill All Customers");
+            System.out.println("14. Occupancy Report");
+            System.out.println("15. Arrivals and Departures");
+            System.out.println("16. Search Customers");
+            System.out.println("17. Group Booking");
+            System.out.println("18. Filter Rooms");
             System.out.println("0. Exit");
             System.out.print("Enter choice: ");
-            choice = scanner.nextInt();
+            if (!scanner.hasNextLine()) {
+                choice = 0;
+            } else {
+                try {
+                    choice = Integer.parseInt(scanner.nextLine().trim());
+                } catch (NumberFormatException e) {
+                    choice = -1;
+                }
+            }
 
             switch (choice) {
-                case 1 -> hotel.addCustomer();
-                case 2 -> hotel.viewCustomers();
-                case 3 -> hotel.updateCustomer();
-                case 4 -> hotel.deleteCustomer();
-                case 5 -> hotel.addRoom();
-                case 6 -> hotel.viewRooms();
-                case 7 -> hotel.deleteRoomById();
-                case 8 -> hotel.bookRoom();
-                case 9 -> hotel.cancelBooking();
-                case 10 -> hotel.viewBookings();
-                case 11 ->hotel.generateBill();
-                case 0 -> System.out.println("Exiting...");
+                case 1 -> menu.addCustomer();
+                case 2 -> menu.viewCustomers();
+                case 3 -> menu.updateCustomer();
+                case 4 -> menu.deleteCustomer();
+                case 5 -> menu.addRoom();
+                case 6 -> menu.viewRooms();
+                case 7 -> menu.deleteRoomById();
+                case 8 -> menu.bookRoom();
+                case 9 -> menu.cancelBooking();
+                case 10 -> menu.viewBookings();
+                case 11 -> menu.generateBill();
+                case 12 -> menu.findFreeRooms();
+                case 13 -> menu.generateAllBills();
+                case 14 -> menu.occupancyReport();
+                case 15 -> menu.arrivalsAndDepartures();
+                case 16 -> menu.searchCustomers();
+                case 17 -> menu.bookGroup();
+                case 18 -> menu.filterRooms();
+                case 0 -> menu.exit();
                 default -> System.out.println("Invalid choice.");
             }
         } while (choice != 0);
     }
+
+    // The core loads silently; the figures come from its metrics
+    private static void reportLoad(HotelDeck hotel) {
+        HotelMetrics metrics = hotel.metrics();
+        long rows = (long) metrics.getCustomers() + metrics.getRooms() + metrics.getBookings();
+        if (rows > 0) {
+            double millis = metrics.operation(Operation.LOAD).getMeanMicros() / 1000;
+            System.out.printf("Loaded %d customers, %d rooms and %d bookings in %.0f ms (%,d rows/s).%n",
+                    metrics.getCustomers(), metrics.getRooms(), metrics.getBookings(), millis,
+                    (long) (rows * 1000 / Math.max(millis, 0.001)));
+        }
+    }
+
+    // Runs until the JVM is stopped; the shutdown hook drains requests and saves the data
+    private static void serveHttp(HotelDeck hotel, HotelConfig config) throws IOException {
+        HotelHttpServer.tuneForManyConnections();
+        HotelHttpServer server = new HotelHttpServer(hotel, config.getHttpPort(), config.getHttpBacklog());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            hotel.close();
+        }, "hoteldeck-shutdown"));
+        server.start();
+        System.out.println("Hotel Deck HTTP server listening on port " + server.port());
+    }
+
+    // One shard per property behind the router; HTTP only, on the configured port or 8080
+    private static void serveProperties(HotelConfig config) throws IOException {
+        HotelHttpServer.tuneForManyConnections();
+        HotelRouter router = new HotelRouter(config);
+        int port = config.getHttpPort() > 0 ? config.getHttpPort() : 8080;
+        HotelHttpServer server = new HotelHttpServer(router, port, config.getHttpBacklog());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            router.close();
+        }, "hoteldeck-shutdown"));
+        server.start();
+        System.out.println("Hotel Deck HTTP server for properties " + router.propertyIds() + " listening on port "
+                + server.port());
+    }
 }
@@ -0,0 +1,346 @@
+package com.hoteldeck;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reads a CSV file through a memory mapping and parses fields straight from the mapped
+ * bytes: no line strings, no split arrays, and only the strings the entities keep.
+ * Fields are trimmed like {@link String#trim()}.
+ *
+ * <p>The mapping belongs to an arena, so {@link #close()} unmaps the file at once rather
+ * than whenever the collector gets to it; the snapshot files are replaced by atomic moves,
+ * which some platforms refuse while a mapping is open. A reader opened as shared can hand
+ * out {@link #range range} readers over parts of the file for other threads to parse.
+ *
+ * <p>Usage: call {@link #nextRow()}, then read the row's fields in order with the
+ * {@code next*} methods. Unusual numbers and dates fall back to the JDK parsers, so the
+ * accepted input is exactly what the string-based loader accepted.
+ */
+final class MappedCsvReader implements Closeable {
+    // Exact powers of ten; a double holds 10^22 exactly, and no higher power
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Null for range readers, which borrow their parent's mapping
+    private final Arena arena;
+    private final MemorySegment data;
+    private final long size;
+    private final IntMap<LocalDate> dates = new IntMap<>();
+    private final String[] symbols = new String[16];
+    private final byte[][] symbolBytes = new byte[16][];
+    private int symbolCount;
+    private byte[] scratch = new byte[64];
+
+    private long rowEnd;
+    private long pos;
+    // Start of the next row; pos and rowEnd describe the current one
+    private long next;
+
+    MappedCsvReader(Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * @param shared map into a shared arena so {@link #range} readers may run on other threads
+     */
+    MappedCsvReader(Path file, boolean shared) throws IOException {
+        arena = shared ? Arena.ofShared() : Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            data = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private MappedCsvReader(MemorySegment data, long from, long to) {
+        this.arena = null;
+        this.data = data;
+        this.size = to;
+        this.next = from;
+    }
+
+    /**
+     * A reader over the rows in bytes [from, to) of this file. Both ends should be row
+     * starts, see {@link #rowStartAtOrAfter}. The range reader must not outlive this one.
+     */
+    MappedCsvReader range(long from, long to) {
+        return new MappedCsvReader(data, from, to);
+    }
+
+    /**
+     * Offset of the next row not yet read.
+     */
+    long position() {
+        return next;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * The first row start at or after the offset: the offset itself if it begins a row,
+     * otherwise the byte after the next newline, or the file size if there is none.
+     */
+    long rowStartAtOrAfter(long offset) {
+        if (offset <= 0) return 0;
+        long i = offset;
+        while (i < size && byteAt(i - 1) != '\n') {
+            i++;
+        }
+        return Math.min(i, size);
+    }
+
+    /**
+     * Advances to the next non-blank row. Returns false at the end of the file.
+     */
+    boolean nextRow() {
+        while (next < size) {
+            long start = next;
+            long end = start;
+            while (end < size && byteAt(end) != '\n') {
+                end++;
+            }
+            next = end + 1;
+            if (end > start && byteAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start) {
+                pos = start;
+                rowEnd = end;
+                return true;
+            }
+        }
+        pos = rowEnd = size;
+        return false;
+    }
+
+    /**
+     * Number of comma-separated fields in the current row.
+     */
+    int fieldCount() {
+        int count = 1;
+        for (long i = pos; i < rowEnd; i++) {
+            if (byteAt(i) == ',') count++;
+        }
+        return count;
+    }
+
+    int nextInt() {
+        long end = fieldEnd();
+        long from = trimStart(pos, end);
+        long to = trimEnd(from, end);
+        pos = end + 1;
+        long i = from;
+        boolean negative = false;
+        if (i < to && (byteAt(i) == '-' || byteAt(i) == '+')) {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+        if (i == to || to - i > 10) {
+            return Integer.parseInt(text(from, to));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = byteAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(text(from, to));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(text(from, to));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Plain decimals such as 2500.0 or 1.5E7 are computed exactly from a long mantissa
+     * and a power of ten; anything else goes through {@link Double#parseDouble}.
+     */
+    double nextDouble() {
+        long end = fieldEnd();
+        long from = trimStart(pos, end);
+        long to = trimEnd(from, end);
+        pos = end + 1;
+        long i = from;
+        boolean negative = false;
+        if (i < to && (byteAt(i) == '-' || byteAt(i) == '+')) {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte b = byteAt(i);
+            if (b >= '0' && b <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return Double.parseDouble(text(from, to));
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) exponent--;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.parseDouble(text(from, to));
+        }
+        if (i < to && (byteAt(i) == 'E' || byteAt(i) == 'e')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (byteAt(i) == '-' || byteAt(i) == '+')) {
+                negativeExponent = byteAt(i) == '-';
+                i++;
+            }
+            int e = 0;
+            long expStart = i;
+            for (; i < to && byteAt(i) >= '0' && byteAt(i) <= '9' && i - expStart < 4; i++) {
+                e = e * 10 + (byteAt(i) - '0');
+            }
+            if (i == expStart) {
+                return Double.parseDouble(text(from, to));
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != to || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(text(from, to));
+        }
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * ISO yyyy-MM-dd dates; each distinct date is built once per reader and shared.
+     */
+    LocalDate nextDate() {
+        long end = fieldEnd();
+        long from = trimStart(pos, end);
+        long to = trimEnd(from, end);
+        pos = end + 1;
+        if (to - from == 10 && byteAt(from + 4) == '-' && byteAt(from + 7) == '-') {
+            int year = digits(from, 4);
+            int month = digits(from + 5, 2);
+            int day = digits(from + 8, 2);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31) {
+                int key = year << 9 | month << 5 | day;
+                LocalDate date = dates.get(key);
+                if (date == null) {
+                    date = LocalDate.of(year, month, day);
+                    dates.put(key, date);
+                }
+                return date;
+            }
+        }
+        return LocalDate.parse(text(from, to));
+    }
+
+    String nextString() {
+        long end = fieldEnd();
+        long from = trimStart(pos, end);
+        long to = trimEnd(from, end);
+        pos = end + 1;
+        return text(from, to);
+    }
+
+    /**
+     * Like {@link #nextString()}, but repeats of a small set of values (room types) share
+     * one string instance.
+     */
+    String nextSymbol() {
+        long end = fieldEnd();
+        long from = trimStart(pos, end);
+        long to = trimEnd(from, end);
+        pos = end + 1;
+        int length = copy(from, to);
+        for (int s = 0; s < symbolCount; s++) {
+            if (Arrays.equals(symbolBytes[s], 0, symbolBytes[s].length, scratch, 0, length)) {
+                return symbols[s];
+            }
+        }
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        if (symbolCount < symbols.length) {
+            symbolBytes[symbolCount] = Arrays.copyOf(scratch, length);
+            symbols[symbolCount++] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    private byte byteAt(long offset) {
+        return data.get(ValueLayout.JAVA_BYTE, offset);
+    }
+
+    private long fieldEnd() {
+        long i = pos;
+        while (i < rowEnd && byteAt(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private long trimStart(long from, long to) {
+        while (from < to && isSpace(byteAt(from))) from++;
+        return from;
+    }
+
+    private long trimEnd(long from, long to) {
+        while (to > from && isSpace(byteAt(to - 1))) to--;
+        return to;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    // Returns -1 unless all count bytes are digits
+    private int digits(long from, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = byteAt(from + i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int copy(long from, long to) {
+        int length = (int) (to - from);
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, from, scratch, 0, length);
+        return length;
+    }
+
+    private String text(long from, long to) {
+        int length = copy(from, to);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
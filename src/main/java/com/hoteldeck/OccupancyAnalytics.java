@@ -0,0 +1,314 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Occupied room-nights and revenue per room type and night, kept current by
+ * {@link EntityStore} as bookings and rooms come and go. Each type holds two
+ * range-update/range-query Fenwick trees over epoch days, so adding a stay of any length
+ * and summing any date range both cost O(log days).
+ *
+ * <p>Revenue is kept in whole cents so that booking and cancelling cancel out exactly.
+ * Each room's type and price are filed when the room is added and used for all of its
+ * stays, so removing a stay always takes back exactly what adding it put in. Occupancy
+ * rates divide by the number of rooms the hotel has now.
+ */
+public class OccupancyAnalytics {
+    private final Map<String, Series> byType = new LinkedHashMap<>();
+    private final IntMap<Filed> rooms = new IntMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Filed(Series series, long centsPerNight) {
+    }
+
+    private static String typeKey(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Files the room under its type and counts the given stays, which are the room's
+     * existing bookings. A room already filed under this ID is first taken out with them.
+     */
+    void addRoom(Room room, List<Booking> stays) {
+        lock.writeLock().lock();
+        try {
+            if (rooms.containsKey(room.getId())) {
+                removeLocked(room.getId(), stays);
+            }
+            Series series = byType.computeIfAbsent(typeKey(room.getType()), key -> new Series(room.getType()));
+            series.rooms++;
+            Filed filed = new Filed(series, Math.round(room.getPrice() * 100));
+            rooms.put(room.getId(), filed);
+            for (Booking stay : stays) {
+                count(filed, stay, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeRoom(int roomId, List<Booking> stays) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(roomId, stays);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int roomId, List<Booking> stays) {
+        Filed filed = rooms.remove(roomId);
+        if (filed == null) return;
+        for (Booking stay : stays) {
+            count(filed, stay, -1);
+        }
+        filed.series.rooms--;
+    }
+
+    void occupy(Booking booking) {
+        change(booking, 1);
+    }
+
+    void vacate(Booking booking) {
+        change(booking, -1);
+    }
+
+    private void change(Booking booking, int sign) {
+        lock.writeLock().lock();
+        try {
+            Filed filed = rooms.get(booking.getRoom().getId());
+            if (filed != null) {
+                count(filed, booking, sign);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void count(Filed filed, Booking booking, int sign) {
+        int from = RoomSchedule.epochDay(booking.getCheckInDate());
+        int to = RoomSchedule.epochDay(booking.getCheckOutDate());
+        if (to <= from) return;
+        filed.series.nights.add(from, to, sign);
+        filed.series.cents.add(from, to, sign * filed.centsPerNight);
+    }
+
+    /**
+     * One line per room type for the nights {@code [from, to)}, in the order the types
+     * first appeared.
+     */
+    public List<Summary> summarize(LocalDate from, LocalDate to) {
+        int in = RoomSchedule.epochDay(from);
+        int out = RoomSchedule.epochDay(to);
+        lock.readLock().lock();
+        try {
+            List<Summary> lines = new ArrayList<>(byType.size());
+            for (Series series : byType.values()) {
+                if (series.rooms == 0 && series.nights.sum(in, out) == 0) continue;
+                lines.add(series.summary(in, out));
+            }
+            return lines;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals for one room type, case-insensitively, or for the whole hotel if type is null.
+     */
+    public Summary summarize(String type, LocalDate from, LocalDate to) {
+        int in = RoomSchedule.epochDay(from);
+        int out = RoomSchedule.epochDay(to);
+        lock.readLock().lock();
+        try {
+            if (type != null) {
+                Series series = byType.get(typeKey(type));
+                return series == null ? new Summary(type, 0, 0, in, out, 0) : series.summary(in, out);
+            }
+            int roomCount = 0;
+            long nights = 0;
+            long cents = 0;
+            for (Series series : byType.values()) {
+                roomCount += series.rooms;
+                nights += series.nights.sum(in, out);
+                cents += series.cents.sum(in, out);
+            }
+            return new Summary(null, roomCount, nights, in, out, cents);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Per-night figures for one type (or all types if null) over {@code [from, to)}.
+     */
+    public List<Summary> daily(String type, LocalDate from, LocalDate to) {
+        List<Summary> days = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            days.add(summarize(type, day, day.plusDays(1)));
+        }
+        return days;
+    }
+
+    private static final class Series {
+        final String type;
+        final RangeSums nights = new RangeSums();
+        final RangeSums cents = new RangeSums();
+        int rooms;
+
+        Series(String type) {
+            this.type = type;
+        }
+
+        Summary summary(int in, int out) {
+            return new Summary(type, rooms, nights.sum(in, out), in, out, cents.sum(in, out));
+        }
+    }
+
+    /**
+     * Fenwick trees supporting "add v to every day in a range" and "sum over a range", both
+     * in O(log n). Covers a window of days that grows, by doubling, to take in every day
+     * that is ever added to.
+     */
+    static final class RangeSums {
+        private int base;
+        private long[] b1 = new long[0];
+        private long[] b2 = new long[0];
+
+        /**
+         * Adds v to each day in {@code [from, to)}.
+         */
+        void add(int from, int to, long v) {
+            cover(from, to);
+            int l = from - base + 1;
+            int r = to - base;
+            update(b1, l, v);
+            update(b1, r + 1, -v);
+            update(b2, l, v * (l - 1));
+            update(b2, r + 1, -v * r);
+        }
+
+        /**
+         * Sum over the days in {@code [from, to)}.
+         */
+        long sum(int from, int to) {
+            int n = b1.length - 1;
+            if (n <= 0) return 0;
+            int l = Math.max(from - base + 1, 1);
+            int r = Math.min(to - base, n);
+            if (l > r) return 0;
+            return prefix(r) - prefix(l - 1);
+        }
+
+        private long prefix(int i) {
+            return query(b1, i) * i - query(b2, i);
+        }
+
+        private static void update(long[] tree, int i, long v) {
+            for (; i < tree.length; i += i & -i) {
+                tree[i] += v;
+            }
+        }
+
+        private static long query(long[] tree, int i) {
+            long s = 0;
+            for (; i > 0; i -= i & -i) {
+                s += tree[i];
+            }
+            return s;
+        }
+
+        // Widens the window to include [from, to), re-adding the existing per-day values
+        private void cover(int from, int to) {
+            int n = b1.length - 1;
+            if (n > 0 && from >= base && to - base <= n) return;
+            long[] values = new long[Math.max(n, 0)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = prefix(i + 1) - prefix(i);
+            }
+            int oldBase = base;
+            int low = n > 0 ? Math.min(from, base) : from;
+            int high = n > 0 ? Math.max(to, base + n) : to;
+            int size = Integer.highestOneBit(Math.max(1024, high - low) - 1) << 1;
+            // Leave room on both sides so a sliding booking horizon rarely triggers another rebuild
+            base = low - (size - (high - low)) / 2;
+            b1 = new long[size + 1];
+            b2 = new long[size + 1];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != 0) {
+                    int day = oldBase + i - base + 1;
+                    update(b1, day, values[i]);
+                    update(b1, day + 1, -values[i]);
+                    update(b2, day, values[i] * (day - 1));
+                    update(b2, day + 1, -values[i] * day);
+                }
+            }
+        }
+    }
+
+    /**
+     * Occupied room-nights and revenue of one room type (or the whole hotel) over a range
+     * of nights.
+     */
+    public static class Summary {
+        private final String type;
+        private final int rooms;
+        private final long roomNights;
+        private final LocalDate from;
+        private final int days;
+        private final long revenueCents;
+
+        Summary(String type, int rooms, long roomNights, int fromDay, int toDay, long revenueCents) {
+            this.type = type;
+            this.rooms = rooms;
+            this.roomNights = roomNights;
+            this.from = LocalDate.ofEpochDay(fromDay);
+            this.days = Math.max(0, toDay - fromDay);
+            this.revenueCents = revenueCents;
+        }
+
+        /**
+         * The room type, or null for the whole hotel.
+         */
+        public String getType() {
+            return type;
+        }
+
+        public int getRooms() {
+            return rooms;
+        }
+
+        public long getRoomNights() {
+            return roomNights;
+        }
+
+        /**
+         * The first night covered.
+         */
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public double getRevenue() {
+            return revenueCents / 100.0;
+        }
+
+        /**
+         * Occupied room-nights over available room-nights, between 0 and 1.
+         */
+        public double getOccupancyRate() {
+            long available = (long) rooms * days;
+            return available == 0 ? 0 : (double) roomNights / available;
+        }
+    }
+}
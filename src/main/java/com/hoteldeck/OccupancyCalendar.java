@@ -0,0 +1,202 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Whole-hotel occupancy as bitsets. Every room gets a slot number; each epoch day with at
+ * least one stay has a {@code long[]} with bit {@code slot} set if that room is occupied
+ * that night, and each room type has a mask of its slots. "Which rooms of type X are free
+ * for these nights" is then an OR over the nights followed by an AND-NOT against the type
+ * mask, 64 rooms per word.
+ *
+ * <p>Bookings for different rooms update the calendar under the store's read lock from
+ * many threads, so every method synchronizes on this object.
+ */
+public class OccupancyCalendar {
+    private static final int NO_SLOT = -1;
+
+    private final IntIntMap slotByRoomId = new IntIntMap(NO_SLOT);
+    private final Map<String, long[]> typeMasks = new HashMap<>();
+    private final IntMap<long[]> nights = new IntMap<>();
+    private Room[] roomBySlot = new Room[64];
+    private long[] usedSlots = new long[1];
+
+    private static String typeKey(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] setBit(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        }
+        bits[word] |= 1L << bit;
+        return bits;
+    }
+
+    private static void clearBit(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word < bits.length) {
+            bits[word] &= ~(1L << bit);
+        }
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the room, or refreshes it if its ID already has a slot, and marks the nights of
+     * {@code stays}, bookings that outlived an earlier room with this ID.
+     */
+    public synchronized void addRoom(Room room, List<Booking> stays) {
+        addRoom(room);
+        for (Booking booking : stays) {
+            occupy(booking);
+        }
+    }
+
+    public synchronized void addRoom(Room room) {
+        int existing = slotByRoomId.get(room.getId());
+        if (existing != NO_SLOT) {
+            // Same ID re-added, replaced or retyped in place: keep the slot, refresh the type mask
+            for (long[] mask : typeMasks.values()) {
+                clearBit(mask, existing);
+            }
+            roomBySlot[existing] = room;
+            addToTypeMask(room, existing);
+            return;
+        }
+        int slot = nextFreeSlot();
+        if (slot >= roomBySlot.length) {
+            roomBySlot = Arrays.copyOf(roomBySlot, roomBySlot.length * 2);
+        }
+        roomBySlot[slot] = room;
+        usedSlots = setBit(usedSlots, slot);
+        slotByRoomId.put(room.getId(), slot);
+        addToTypeMask(room, slot);
+    }
+
+    public synchronized void removeRoom(int roomId) {
+        int slot = slotByRoomId.remove(roomId);
+        if (slot == NO_SLOT) return;
+        removeFromTypeMask(roomBySlot[slot], slot);
+        roomBySlot[slot] = null;
+        clearBit(usedSlots, slot);
+        // The slot will be reused, so it must not carry this room's nights over
+        nights.forEachValue(bits -> clearBit(bits, slot));
+        nights.removeIf(OccupancyCalendar::isEmpty);
+    }
+
+    private void addToTypeMask(Room room, int slot) {
+        String key = typeKey(room.getType());
+        typeMasks.put(key, setBit(typeMasks.getOrDefault(key, new long[1]), slot));
+    }
+
+    private void removeFromTypeMask(Room room, int slot) {
+        long[] mask = typeMasks.get(typeKey(room.getType()));
+        if (mask != null) {
+            clearBit(mask, slot);
+        }
+    }
+
+    private int nextFreeSlot() {
+        for (int word = 0; word < usedSlots.length; word++) {
+            if (usedSlots[word] != -1L) {
+                return (word << 6) + Long.numberOfTrailingZeros(~usedSlots[word]);
+            }
+        }
+        return usedSlots.length << 6;
+    }
+
+    public synchronized void occupy(Booking booking) {
+        int slot = slotByRoomId.get(booking.getRoom().getId());
+        if (slot == NO_SLOT) return;
+        int checkOut = RoomSchedule.epochDay(booking.getCheckOutDate());
+        for (int day = RoomSchedule.epochDay(booking.getCheckInDate()); day < checkOut; day++) {
+            long[] bits = nights.get(day);
+            long[] updated = setBit(bits == null ? new long[usedSlots.length] : bits, slot);
+            if (updated != bits) {
+                nights.put(day, updated);
+            }
+        }
+    }
+
+    public synchronized void vacate(Booking booking) {
+        int slot = slotByRoomId.get(booking.getRoom().getId());
+        if (slot == NO_SLOT) return;
+        int checkOut = RoomSchedule.epochDay(booking.getCheckOutDate());
+        for (int day = RoomSchedule.epochDay(booking.getCheckInDate()); day < checkOut; day++) {
+            long[] bits = nights.get(day);
+            if (bits != null) {
+                clearBit(bits, slot);
+                // A night nobody stays drops out, so the map only holds booked nights
+                if (isEmpty(bits)) {
+                    nights.remove(day);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rooms free for every night of {@code [checkIn, checkOut)}, in slot order.
+     *
+     * @param type room type to match, case-insensitively, or null for any type
+     */
+    public synchronized List<Room> freeRooms(String type, LocalDate checkIn, LocalDate checkOut) {
+        long[] candidates = type == null ? usedSlots : typeMasks.get(typeKey(type));
+        List<Room> free = new ArrayList<>();
+        if (candidates == null) {
+            return free;
+        }
+        long[] busy = new long[candidates.length];
+        int out = RoomSchedule.epochDay(checkOut);
+        for (int day = RoomSchedule.epochDay(checkIn); day < out; day++) {
+            long[] bits = nights.get(day);
+            if (bits == null) continue;
+            int words = Math.min(busy.length, bits.length);
+            for (int i = 0; i < words; i++) {
+                busy[i] |= bits[i];
+            }
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            long freeBits = candidates[i] & ~busy[i];
+            while (freeBits != 0) {
+                int slot = (i << 6) + Long.numberOfTrailingZeros(freeBits);
+                free.add(roomBySlot[slot]);
+                freeBits &= freeBits - 1;
+            }
+        }
+        return free;
+    }
+
+    public synchronized void clear() {
+        slotByRoomId.clear();
+        typeMasks.clear();
+        nights.clear();
+        Arrays.fill(roomBySlot, null);
+        usedSlots = new long[1];
+    }
+
+    /**
+     * Discards everything and rebuilds the calendar from the store's rooms and bookings.
+     */
+    public synchronized void rebuild(EntityStore store) {
+        clear();
+        for (Room room : store.rooms().ordered()) {
+            addRoom(room);
+        }
+        for (Booking booking : store.bookings().list()) {
+            occupy(booking);
+        }
+    }
+}
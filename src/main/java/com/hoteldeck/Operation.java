@@ -0,0 +1,47 @@
+package com.hoteldeck;
+
+/**
+ * The operations {@link HotelMetrics} times, each under the name it has in JMX and in the
+ * metrics file.
+ */
+public enum Operation {
+    ADD_CUSTOMER("addCustomer"),
+    UPDATE_CUSTOMER("updateCustomer"),
+    DELETE_CUSTOMER("deleteCustomer"),
+    FIND_CUSTOMER("findCustomerById"),
+    SEARCH_CUSTOMERS("searchCustomers"),
+    ADD_ROOM("addRoom"),
+    DELETE_ROOM("deleteRoom"),
+    FIND_ROOM("findRoomById"),
+    FREE_ROOMS("freeRooms"),
+    FILTER_ROOMS("findRooms"),
+    BOOK_ROOM("bookRoom"),
+    BOOK_ROOMS("bookRooms"),
+    CANCEL_BOOKING("cancelBooking"),
+    FIND_BOOKING("findBookingById"),
+    LIST_PAGE("listPage"),
+    GENERATE_BILL("generateBill"),
+    GENERATE_ALL_BILLS("generateAllBills"),
+    LOAD("load"),
+    SAVE_CUSTOMERS_CSV("saveCustomersToCsv"),
+    SAVE_ROOMS_CSV("saveRoomsToCsv"),
+    SAVE_BOOKINGS_CSV("saveBookingsToCsv"),
+    SAVE_BINARY_SNAPSHOT("saveBinarySnapshot"),
+    JOURNAL_APPEND("journalAppend"),
+    JOURNAL_SYNC("journalSync"),
+    JOURNAL_COMPACT("journalCompact"),
+    RECORD_WRITE("recordWrite"),
+    REPLICA_APPLY("replicaApply"),
+    // Not a call: the time from a change on the primary to a replica applying it
+    REPLICATION_LAG("replicationLag");
+
+    private final String metricName;
+
+    Operation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hoteldeck;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Call count, latency histogram and bytes written for one {@link Operation}.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final Operation operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public OperationMetrics(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long nanos, long bytesWritten) {
+        latency.record(nanos);
+        if (bytesWritten > 0) {
+            bytes.addAndGet(bytesWritten);
+        }
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    @Override
+    public String getName() {
+        return operation.metricName();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.mean() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return micros(latency.percentile(0.5));
+    }
+
+    @Override
+    public double getP90Micros() {
+        return micros(latency.percentile(0.9));
+    }
+
+    @Override
+    public double getP99Micros() {
+        return micros(latency.percentile(0.99));
+    }
+
+    @Override
+    public double getP999Micros() {
+        return micros(latency.percentile(0.999));
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return micros(latency.max());
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        bytes.set(0);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hoteldeck;
+
+/**
+ * One operation's counters as seen in JMX, under
+ * {@code com.hoteldeck:type=Operation,hotel=<name>,name=<operation>}. Latencies are in
+ * microseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    String getName();
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    /**
+     * Bytes written to disk by this operation; 0 for operations that do not write.
+     */
+    long getBytes();
+
+    void reset();
+}
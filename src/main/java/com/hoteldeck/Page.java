@@ -0,0 +1,29 @@
+package com.hoteldeck;
+
+import java.util.List;
+
+/**
+ * One page of a listing in ID order, and the cursor to ask for the next one with: the ID of
+ * the last item on this page, or null when this was the last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final Integer nextAfter;
+
+    public Page(List<T> items, Integer nextAfter) {
+        this.items = items;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Integer getNextAfter() {
+        return nextAfter;
+    }
+
+    public boolean hasNext() {
+        return nextAfter != null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hoteldeck;
+
+import java.util.List;
+
+/**
+ * How {@link HotelDeck} makes its in-memory state durable. The store has already been
+ * updated when one of the change callbacks is invoked; the strategy decides how and
+ * when that change reaches disk.
+ */
+public interface Persistence {
+
+    /**
+     * Populates an empty store from disk.
+     */
+    void load(EntityStore store);
+
+    void customerSaved(Customer customer);
+
+    void customerDeleted(int customerId);
+
+    void roomSaved(Room room);
+
+    void roomDeleted(int roomId);
+
+    /**
+     * A new booking was added.
+     */
+    void bookingSaved(Booking booking);
+
+    /**
+     * Several bookings were added together, as one group; they reach disk in a single write.
+     */
+    void bookingsSaved(List<Booking> bookings);
+
+    /**
+     * The booking was removed and its dates released.
+     */
+    void bookingCancelled(Booking booking);
+
+    /**
+     * From now until {@link #endBatch()}, changes are held back so they can be written
+     * together. Only {@link WriteBehindPersistence} batches, from its persister thread.
+     */
+    void beginBatch();
+
+    /**
+     * Writes the changes held back since {@link #beginBatch()} in one go. The caller holds
+     * the store's read lock.
+     */
+    void endBatch();
+
+    /**
+     * Blocks until every change reported so far is on disk.
+     */
+    void flush();
+
+    /**
+     * Flushes and releases any files or background threads.
+     */
+    void close();
+
+    /**
+     * True when the store is kept in step from elsewhere ({@link ReplicaPersistence}) and the
+     * hotel must refuse changes of its own.
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.hoteldeck;
+
+public enum PersistenceMode {
+    /** Rewrite the affected CSV files on every change. */
+    CSV,
+    /** Append each change to a journal and fold it into the CSV files in the background. */
+    JOURNAL,
+    /** Keep each entity in a fixed-width slot of a record file and update it in place. */
+    RECORDS
+}
@@ -0,0 +1,40 @@
+package com.hoteldeck;
+
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One write or sync of a persistence file: a CSV rewrite, a binary snapshot, a journal
+ * append or fsync.
+ */
+@Name("com.hoteldeck.PersistenceWrite")
+@Label("Persistence Write")
+@Category({"Hotel Deck", "Persistence"})
+@StackTrace(false)
+public class PersistenceWriteEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    @Description("The operation's name as in the metrics, for example saveBookingsToCsv")
+    String operation;
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    void finish(Operation operation, Path file, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.metricName();
+            this.file = file.toString();
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
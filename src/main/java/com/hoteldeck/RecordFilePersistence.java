@@ -0,0 +1,455 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Customers, rooms and bookings in three {@link SlottedRecordFile}s, updated in place: saving
+ * one entity is one positioned write of its slot (139 bytes for a customer, 23 for a room
+ * and 21 for a booking at the default widths) and deleting one is a one-byte write,
+ * whatever the table size.
+ *
+ * <pre>
+ * customers.dat  int id, then name, email and phone as strings
+ * rooms.dat      int id, type as a string, double price
+ * bookings.dat   int id, int room id, int customer id, int check-in day, int check-out day
+ * string         short UTF-8 byte length (-1 = null), bytes, zero-padded to the field width
+ * </pre>
+ *
+ * String field widths are chosen when a file is created and kept in its header. A value
+ * too long for its field rebuilds that file once with wider fields, up to
+ * {@value #MAX_FIELD_BYTES} bytes; a longer value is not saved. A room's booked flag is
+ * derived from the bookings on load, so bookings never touch the room file.
+ *
+ * <p>If there is no customer file yet, {@link #load} imports the CSV files in the same
+ * directory. The three files are written under temporary names and moved into place, the
+ * customer file last, so an import that stops partway is simply run again on the next start.
+ */
+public class RecordFilePersistence implements Persistence {
+    public static final String CUSTOMER_FILE = "customers.dat";
+    public static final String ROOM_FILE = "rooms.dat";
+    public static final String BOOKING_FILE = "bookings.dat";
+    static final int CUSTOMER_MAGIC = 'H' | 'D' << 8 | 'R' << 16 | 'C' << 24;
+    static final int ROOM_MAGIC = 'H' | 'D' << 8 | 'R' << 16 | 'R' << 24;
+    static final int BOOKING_MAGIC = 'H' | 'D' << 8 | 'R' << 16 | 'B' << 24;
+    // Name, email and phone; room type
+    static final int[] CUSTOMER_WIDTHS = {48, 64, 16};
+    static final int[] ROOM_WIDTHS = {8};
+    static final int BOOKING_BYTES = 20;
+    // String lengths are stored as shorts
+    static final int MAX_FIELD_BYTES = Short.MAX_VALUE;
+    private static final String IMPORT_SUFFIX = ".import";
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(SlottedRecordFile.ORDER);
+    private static final ValueLayout.OfShort SHORT =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(SlottedRecordFile.ORDER);
+    private static final ValueLayout.OfDouble DOUBLE =
+            ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(SlottedRecordFile.ORDER);
+
+    private final Path dir;
+    private final CsvSnapshot csv;
+    private final HotelMetrics metrics;
+    private EntityStore store;
+    private SlottedRecordFile customers;
+    private SlottedRecordFile rooms;
+    private SlottedRecordFile bookings;
+
+    public RecordFilePersistence(Path dir, HotelMetrics metrics) {
+        this.dir = dir;
+        this.csv = new CsvSnapshot(dir, metrics);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        // The customer file is moved into place last, so it marks a finished import
+        boolean fresh = !Files.exists(dir.resolve(CUSTOMER_FILE));
+        try {
+            if (fresh) {
+                importCsv();
+            }
+            customers = SlottedRecordFile.open(dir.resolve(CUSTOMER_FILE), CUSTOMER_MAGIC,
+                    customerBytes(CUSTOMER_WIDTHS), CUSTOMER_WIDTHS);
+            rooms = SlottedRecordFile.open(dir.resolve(ROOM_FILE), ROOM_MAGIC, roomBytes(ROOM_WIDTHS), ROOM_WIDTHS);
+            bookings = SlottedRecordFile.open(dir.resolve(BOOKING_FILE), BOOKING_MAGIC, BOOKING_BYTES, new int[0]);
+            // After an import the store already holds everything; only the slot directories are built
+            SlottedRecordFile.Reader skip = (data, offset) -> {
+            };
+            int[] customerWidths = checkLayout(customers, CUSTOMER_WIDTHS.length, customerBytes(customers.layout()));
+            int[] roomWidths = checkLayout(rooms, ROOM_WIDTHS.length, roomBytes(rooms.layout()));
+            load("customers", customers, fresh ? skip : (data, offset) -> store.putCustomer(readCustomer(data,
+                    offset, customerWidths)));
+            load("rooms", rooms, fresh ? skip : (data, offset) -> store.putRoom(readRoom(data, offset, roomWidths)));
+            load("bookings", bookings, fresh ? skip : this::putBooking);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open record files in " + dir, e);
+        }
+    }
+
+    // The widths in the header must fit the slots, or every record would be read out of place
+    private static int[] checkLayout(SlottedRecordFile file, int fields, int recordBytes) throws IOException {
+        int[] widths = file.layout();
+        for (int i = 0; i < fields; i++) {
+            if (widths[i] < 0 || widths[i] > MAX_FIELD_BYTES) {
+                throw new IOException(file.file() + " has a corrupt layout: field width " + widths[i]);
+            }
+        }
+        if (recordBytes > file.recordBytes()) {
+            throw new IOException(file.file() + " has a corrupt layout: " + recordBytes
+                    + "-byte records in " + file.recordBytes() + "-byte slots");
+        }
+        return widths;
+    }
+
+    private static void load(String phase, SlottedRecordFile file,
+                             SlottedRecordFile.Reader reader) throws IOException {
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.begin();
+        int rows = file.load(reader);
+        event.finish(phase, file.file(), rows);
+    }
+
+    private void putBooking(MemorySegment data, long offset) {
+        Room room = store.bookedRoom(data.get(INT, offset + 4));
+        Customer customer = store.bookedCustomer(data.get(INT, offset + 8));
+        Booking booking = new Booking(data.get(INT, offset), room, customer,
+                LocalDate.ofEpochDay(data.get(INT, offset + 12)), LocalDate.ofEpochDay(data.get(INT, offset + 16)));
+        if (!store.putBooking(booking)) {
+            System.out.println("Skipping booking " + booking.getId() + ": overlaps another stay in room " + room.getId());
+        }
+    }
+
+    /**
+     * Loads the CSV files into the store and writes them out as record files, with fields wide
+     * enough for every value, under temporary names that are moved into place once complete.
+     */
+    private void importCsv() throws IOException {
+        csv.load(store);
+        if (store.customers().isEmpty() && store.rooms().isEmpty()) return;
+        int[] customerWidths = CUSTOMER_WIDTHS.clone();
+        for (Customer customer : store.customers().ordered()) {
+            customerWidths[0] = widen(customerWidths[0], customer.getName());
+            customerWidths[1] = widen(customerWidths[1], customer.getEmail());
+            customerWidths[2] = widen(customerWidths[2], customer.getPhoneNumber());
+        }
+        int[] roomWidths = ROOM_WIDTHS.clone();
+        for (Room room : store.rooms().ordered()) {
+            roomWidths[0] = widen(roomWidths[0], room.getType());
+        }
+        Path bookingFile = writeImport(BOOKING_FILE, BOOKING_MAGIC, BOOKING_BYTES, new int[0], file -> {
+            for (Booking booking : store.bookings().list()) {
+                file.put(booking.getId(), bookingRecord(booking));
+            }
+        });
+        Path roomFile = writeImport(ROOM_FILE, ROOM_MAGIC, roomBytes(roomWidths), roomWidths,
+                file -> putRooms(file, roomWidths));
+        Path customerFile = writeImport(CUSTOMER_FILE, CUSTOMER_MAGIC, customerBytes(customerWidths),
+                customerWidths, file -> putCustomers(file, customerWidths));
+        Files.move(bookingFile, dir.resolve(BOOKING_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.move(roomFile, dir.resolve(ROOM_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.move(customerFile, dir.resolve(CUSTOMER_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path writeImport(String name, int magic, int recordBytes, int[] layout, Filler filler)
+            throws IOException {
+        Path tmp = dir.resolve(name + IMPORT_SUFFIX);
+        // Left over from an import that stopped partway
+        Files.deleteIfExists(tmp);
+        try (SlottedRecordFile file = SlottedRecordFile.open(tmp, magic, recordBytes, layout)) {
+            file.load((data, offset) -> {
+            });
+            filler.fill(file);
+            file.force();
+        }
+        return tmp;
+    }
+
+    private void putCustomers(SlottedRecordFile file, int[] widths) throws IOException {
+        for (Customer c : store.customers().ordered()) {
+            ByteBuffer record = customerRecord(c, widths);
+            if (record == null) {
+                System.out.println("Error writing " + CUSTOMER_FILE + ": customer " + c.getId()
+                        + " has a value longer than " + MAX_FIELD_BYTES + " bytes; it was not saved.");
+                continue;
+            }
+            file.put(c.getId(), record);
+        }
+    }
+
+    private void putRooms(SlottedRecordFile file, int[] widths) throws IOException {
+        for (Room r : store.rooms().ordered()) {
+            ByteBuffer record = roomRecord(r, widths);
+            if (record == null) {
+                System.out.println("Error writing " + ROOM_FILE + ": room " + r.getId() + " has a type longer than "
+                        + MAX_FIELD_BYTES + " bytes; it was not saved.");
+                continue;
+            }
+            file.put(r.getId(), record);
+        }
+    }
+
+    // Record layouts
+
+    private static int customerBytes(int[] widths) {
+        return 4 + 2 + widths[0] + 2 + widths[1] + 2 + widths[2];
+    }
+
+    private static int roomBytes(int[] widths) {
+        return 4 + 2 + widths[0] + 8;
+    }
+
+    private static Customer readCustomer(MemorySegment data, long offset, int[] widths) {
+        long name = offset + 4;
+        long email = name + 2 + widths[0];
+        long phone = email + 2 + widths[1];
+        return new Customer(data.get(INT, offset), readString(data, name, widths[0]),
+                readString(data, email, widths[1]), readString(data, phone, widths[2]));
+    }
+
+    private static Room readRoom(MemorySegment data, long offset, int[] widths) {
+        return new Room(data.get(INT, offset), readString(data, offset + 4, widths[0]),
+                data.get(DOUBLE, offset + 6 + widths[0]));
+    }
+
+    // Rejects a stored length the field cannot hold, rather than reading into the next field
+    private static String readString(MemorySegment data, long offset, int width) {
+        int length = data.get(SHORT, offset);
+        if (length == -1) return null;
+        if (length < 0 || length > width) {
+            throw new IllegalArgumentException("string length " + length + " does not fit its " + width
+                    + "-byte field");
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, offset + 2, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Returns false if the value is longer than the field
+    private static boolean putString(ByteBuffer buffer, byte[] value, int width) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            if (value.length > width) return false;
+            buffer.putShort((short) value.length).put(value);
+        }
+        buffer.position(buffer.position() + width - (value == null ? 0 : value.length));
+        return true;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Twice the value's length if it does not fit, so the next long value likely will, but never
+    // past what a short length can describe
+    private static int widen(int width, String value) {
+        byte[] bytes = utf8(value);
+        return bytes == null || bytes.length <= width ? width : Math.min(2 * bytes.length, MAX_FIELD_BYTES);
+    }
+
+    /**
+     * Encodes the customer for the file's field widths, or returns null if a value does not fit.
+     */
+    private static ByteBuffer customerRecord(Customer customer, int[] widths) {
+        ByteBuffer buffer = ByteBuffer.allocate(customerBytes(widths)).order(SlottedRecordFile.ORDER);
+        buffer.putInt(customer.getId());
+        if (!putString(buffer, utf8(customer.getName()), widths[0])
+                || !putString(buffer, utf8(customer.getEmail()), widths[1])
+                || !putString(buffer, utf8(customer.getPhoneNumber()), widths[2])) {
+            return null;
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer roomRecord(Room room, int[] widths) {
+        ByteBuffer buffer = ByteBuffer.allocate(roomBytes(widths)).order(SlottedRecordFile.ORDER);
+        buffer.putInt(room.getId());
+        if (!putString(buffer, utf8(room.getType()), widths[0])) {
+            return null;
+        }
+        return buffer.putDouble(room.getPrice()).flip();
+    }
+
+    private static ByteBuffer bookingRecord(Booking booking) {
+        return ByteBuffer.allocate(BOOKING_BYTES).order(SlottedRecordFile.ORDER)
+                .putInt(booking.getId())
+                .putInt(booking.getRoom().getId())
+                .putInt(booking.getCustomer().getId())
+                .putInt((int) booking.getCheckInDate().toEpochDay())
+                .putInt((int) booking.getCheckOutDate().toEpochDay())
+                .flip();
+    }
+
+    // Changes
+
+    @Override
+    public synchronized void customerSaved(Customer customer) {
+        ByteBuffer record = customerRecord(customer, customers.layout());
+        if (record == null) {
+            int[] widths = customers.layout();
+            widths[0] = widen(widths[0], customer.getName());
+            widths[1] = widen(widths[1], customer.getEmail());
+            widths[2] = widen(widths[2], customer.getPhoneNumber());
+            if (customerRecord(customer, widths) == null) {
+                System.out.println("Error writing " + CUSTOMER_FILE + ": customer " + customer.getId()
+                        + " has a value longer than " + MAX_FIELD_BYTES + " bytes; the change was not saved.");
+                return;
+            }
+            customers = rebuild(customers, CUSTOMER_MAGIC, customerBytes(widths), widths,
+                    file -> putCustomers(file, widths));
+            return;
+        }
+        put(customers, customer.getId(), record);
+    }
+
+    @Override
+    public synchronized void customerDeleted(int customerId) {
+        remove(customers, customerId);
+    }
+
+    @Override
+    public synchronized void roomSaved(Room room) {
+        ByteBuffer record = roomRecord(room, rooms.layout());
+        if (record == null) {
+            int[] widths = {widen(rooms.layout()[0], room.getType())};
+            if (roomRecord(room, widths) == null) {
+                System.out.println("Error writing " + ROOM_FILE + ": room " + room.getId() + " has a type longer than "
+                        + MAX_FIELD_BYTES + " bytes; the change was not saved.");
+                return;
+            }
+            rooms = rebuild(rooms, ROOM_MAGIC, roomBytes(widths), widths, file -> putRooms(file, widths));
+            return;
+        }
+        put(rooms, room.getId(), record);
+    }
+
+    @Override
+    public synchronized void roomDeleted(int roomId) {
+        remove(rooms, roomId);
+    }
+
+    @Override
+    public synchronized void bookingSaved(Booking booking) {
+        put(bookings, booking.getId(), bookingRecord(booking));
+    }
+
+    @Override
+    public synchronized void bookingsSaved(List<Booking> saved) {
+        for (Booking booking : saved) {
+            put(bookings, booking.getId(), bookingRecord(booking));
+        }
+    }
+
+    @Override
+    public synchronized void bookingCancelled(Booking booking) {
+        remove(bookings, booking.getId());
+    }
+
+    private void put(SlottedRecordFile file, int id, ByteBuffer record) {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        try {
+            int bytes = file.put(id, record);
+            written(started, event, file, bytes);
+        } catch (IOException e) {
+            System.out.println("Error writing " + file.file().getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void remove(SlottedRecordFile file, int id) {
+        long started = System.nanoTime();
+        PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+        try {
+            if (file.remove(id)) {
+                written(started, event, file, 1);
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing " + file.file().getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void written(long started, PersistenceWriteEvent event, SlottedRecordFile file, long bytes) {
+        if (metrics != null) {
+            metrics.record(Operation.RECORD_WRITE, started, bytes);
+        }
+        event.finish(Operation.RECORD_WRITE, file.file(), bytes);
+    }
+
+    private interface Filler {
+        void fill(SlottedRecordFile file) throws IOException;
+    }
+
+    /**
+     * Rewrites the file with a new layout from the store, through a temporary sibling moved
+     * over the old file, and returns it reopened; or the old file, unchanged, if that fails.
+     * Callers hold the store's lock.
+     */
+    private SlottedRecordFile rebuild(SlottedRecordFile old, int magic, int recordBytes, int[] layout, Filler filler) {
+        Path file = old.file();
+        Path tmp = file.resolveSibling(file.getFileName() + ".rebuild");
+        try {
+            Files.deleteIfExists(tmp);
+            try (SlottedRecordFile rebuilt = SlottedRecordFile.open(tmp, magic, recordBytes, layout)) {
+                rebuilt.load((data, offset) -> {
+                });
+                filler.fill(rebuilt);
+                rebuilt.force();
+            }
+            old.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            SlottedRecordFile reopened = SlottedRecordFile.open(file, magic, recordBytes, layout);
+            reopened.load((data, offset) -> {
+            });
+            return reopened;
+        } catch (IOException e) {
+            System.out.println("Error widening " + file.getFileName() + "; the change was not saved: " + e.getMessage());
+            return old;
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+    }
+
+    // Every change is already a single small write, so a batch has nothing to combine
+    @Override
+    public void endBatch() {
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (SlottedRecordFile file : List.of(customers, rooms, bookings)) {
+            try {
+                file.force();
+            } catch (IOException e) {
+                System.out.println("Error syncing " + file.file().getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        for (SlottedRecordFile file : List.of(customers, rooms, bookings)) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.out.println("Error closing " + file.file().getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hoteldeck;
+
+/**
+ * A read replica's state as seen in JMX, under {@code com.hoteldeck:type=Replica,name=<name>}.
+ */
+public interface ReplicaMXBean {
+
+    boolean isConnected();
+
+    /**
+     * Sequence number of the latest change applied here.
+     */
+    long getAppliedSequence();
+
+    /**
+     * Time from the primary making the latest applied change to this replica applying it.
+     */
+    long getLagMillis();
+
+    /**
+     * Time since the primary last sent anything, changes or heartbeats; it sends a heartbeat
+     * every second when idle. -1 before the first contact.
+     */
+    long getMillisSinceContact();
+
+    /**
+     * Full copies received from the primary: one per connection.
+     */
+    long getCopies();
+}
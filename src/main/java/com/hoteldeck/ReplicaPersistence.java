@@ -0,0 +1,302 @@
+package com.hoteldeck;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a read-only {@link HotelDeck} in step with a primary's {@link ReplicationPrimary}
+ * instead of reading and writing files of its own. A follower thread connects to the
+ * primary, replaces the store's contents with the full copy it is sent first, and then
+ * applies each change under the store's write lock, so queries see whole changes only.
+ *
+ * <p>When the connection drops, or no heartbeat arrives for {@value #TIMEOUT_MILLIS} ms, the
+ * replica keeps serving what it has and reconnects every second; each new connection starts
+ * with a fresh full copy. {@link HotelDeck} refuses changes while this is its persistence.
+ */
+public class ReplicaPersistence implements Persistence, ReplicaMXBean {
+    static final int TIMEOUT_MILLIS = 5000;
+    private static final long FIRST_COPY_WAIT_SECONDS = 30;
+    private static final int BATCH_RECORDS = 1000;
+
+    private final String primary;
+    private final InetSocketAddress address;
+    private final HotelMetrics metrics;
+    private final Thread follower;
+    private final CountDownLatch firstCopy = new CountDownLatch(1);
+
+    private record Message(char kind, long sequence, long millis, List<String> records) {
+    }
+
+    private EntityStore store;
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private volatile long appliedSequence;
+    private volatile long lagMillis;
+    private volatile long lastContact;
+    private volatile long copies;
+
+    /**
+     * @param primary the primary's {@code host:port}
+     */
+    public ReplicaPersistence(String primary, HotelMetrics metrics) {
+        int colon = primary.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Primary must be host:port, not '" + primary + "'");
+        }
+        this.primary = primary;
+        this.address = new InetSocketAddress(primary.substring(0, colon), Integer.parseInt(primary.substring(colon + 1)));
+        this.metrics = metrics;
+        this.follower = new Thread(this::follow, "hoteldeck-replica");
+        this.follower.setDaemon(true);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * Starts following the primary and waits for its first full copy, or starts empty if
+     * none arrives in time.
+     */
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        metrics.addComponent("Replica", this);
+        follower.start();
+        try {
+            if (!firstCopy.await(FIRST_COPY_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("No copy from primary " + primary + " yet; starting empty and retrying.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void follow() {
+        while (!closed) {
+            try (Socket s = new Socket()) {
+                s.connect(address, TIMEOUT_MILLIS);
+                s.setSoTimeout(TIMEOUT_MILLIS);
+                socket = s;
+                read(new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), 1 << 16));
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    System.out.println("Replication from " + primary + " interrupted: " + e.getMessage()
+                            + "; reconnecting.");
+                }
+            } finally {
+                socket = null;
+            }
+            if (closed) return;
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void read(BufferedReader in) throws IOException {
+        String header;
+        while ((header = in.readLine()) != null) {
+            lastContact = System.currentTimeMillis();
+            Message message = message(header, in);
+            if (message == null) continue;
+
+            // Whatever else has already arrived is read ahead, up to a limit that keeps queries
+            // from waiting long; reading happens before the lock, so a change that arrives in
+            // pieces never holds queries up while the rest of it is on the wire
+            List<Message> applied = new ArrayList<>();
+            applied.add(message);
+            int records = message.records().size();
+            while (records < BATCH_RECORDS && in.ready() && (header = in.readLine()) != null) {
+                message = message(header, in);
+                if (message != null) {
+                    applied.add(message);
+                    records += message.records().size();
+                }
+            }
+            long started = System.nanoTime();
+            store.writeLock().lock();
+            try {
+                for (Message m : applied) {
+                    if (m.kind() == 'S') {
+                        replace(m.records());
+                    } else {
+                        for (String record : m.records()) {
+                            JournalPersistence.apply(store, record);
+                        }
+                    }
+                }
+            } finally {
+                store.writeLock().unlock();
+            }
+            metrics.record(Operation.REPLICA_APPLY, started);
+            long now = System.currentTimeMillis();
+            for (Message m : applied) {
+                if (m.kind() == 'S') {
+                    copies++;
+                    firstCopy.countDown();
+                } else {
+                    metrics.operation(Operation.REPLICATION_LAG).record(
+                            TimeUnit.MILLISECONDS.toNanos(Math.max(0, now - m.millis())), 0);
+                }
+            }
+            Message last = applied.get(applied.size() - 1);
+            appliedSequence = last.sequence();
+            lagMillis = last.kind() == 'S' ? 0 : Math.max(0, now - last.millis());
+        }
+        throw new EOFException("Primary closed the connection");
+    }
+
+    // Reads the records under a header; null for a heartbeat
+    private static Message message(String header, BufferedReader in) throws IOException {
+        String[] fields = header.split(",");
+        char kind = fields[0].charAt(0);
+        if (kind == 'H') return null;
+        int count = Integer.parseInt(fields[3]);
+        List<String> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String record = in.readLine();
+            if (record == null) throw new EOFException("Primary closed the connection mid-change");
+            records.add(record);
+        }
+        return new Message(kind, Long.parseLong(fields[1]), Long.parseLong(fields[2]), records);
+    }
+
+    /**
+     * Makes the store hold exactly the primary's copy. Bookings the copy lacks or has
+     * differently go first, so the copy's bookings never clash with stale ones; then the copy
+     * is applied over what is left, and rooms and customers it lacks are removed. Caller
+     * holds the store's write lock.
+     */
+    private void replace(List<String> records) {
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> roomIds = new HashSet<>();
+        Map<Integer, String> bookingRecords = new HashMap<>();
+        for (String record : records) {
+            int comma = record.indexOf(',', 2);
+            int id = Integer.parseInt(record.substring(2, comma < 0 ? record.length() : comma).trim());
+            switch (record.charAt(0)) {
+                case 'C' -> customerIds.add(id);
+                case 'R' -> roomIds.add(id);
+                case 'B' -> bookingRecords.put(id, record);
+                default -> {
+                }
+            }
+        }
+        for (Booking booking : store.bookingsSnapshot()) {
+            if (!JournalPersistence.bookingRecord(booking).equals(bookingRecords.get(booking.getId()))) {
+                store.removeBooking(booking.getId());
+            }
+        }
+        for (String record : records) {
+            JournalPersistence.apply(store, record);
+        }
+        for (Room room : new ArrayList<>(store.rooms().ordered())) {
+            if (!roomIds.contains(room.getId())) {
+                store.removeRoom(room.getId());
+            }
+        }
+        for (Customer customer : new ArrayList<>(store.customers().ordered())) {
+            if (!customerIds.contains(customer.getId())) {
+                store.removeCustomer(customer.getId());
+            }
+        }
+    }
+
+    // A replica makes no changes of its own; HotelDeck refuses them before they get here
+
+    @Override
+    public void customerSaved(Customer customer) {
+    }
+
+    @Override
+    public void customerDeleted(int customerId) {
+    }
+
+    @Override
+    public void roomSaved(Room room) {
+    }
+
+    @Override
+    public void roomDeleted(int roomId) {
+    }
+
+    @Override
+    public void bookingSaved(Booking booking) {
+    }
+
+    @Override
+    public void bookingsSaved(List<Booking> bookings) {
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking) {
+    }
+
+    @Override
+    public void beginBatch() {
+    }
+
+    @Override
+    public void endBatch() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean isConnected() {
+        return socket != null;
+    }
+
+    @Override
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    @Override
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public long getMillisSinceContact() {
+        return lastContact == 0 ? -1 : System.currentTimeMillis() - lastContact;
+    }
+
+    @Override
+    public long getCopies() {
+        return copies;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+        follower.interrupt();
+    }
+}
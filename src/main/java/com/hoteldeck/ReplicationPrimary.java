@@ -0,0 +1,326 @@
+package com.hoteldeck;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ships every change to read replicas ({@link ReplicaPersistence}) over a loopback socket,
+ * on top of another persistence strategy that keeps the primary's own files.
+ *
+ * <p>Each change gets the next sequence number and goes onto every connected replica's
+ * bounded queue; a sender thread per replica writes it out, so bookings never wait for a
+ * replica. A replica whose queue fills up is dropped, and catches up by reconnecting.
+ *
+ * <p>The stream is newline-delimited UTF-8. Records are journal lines (see
+ * {@link JournalPersistence}) under a header line:
+ *
+ * <pre>
+ * S,seq,millis,n   followed by n records: the whole state as of change seq, sent on connecting
+ * M,seq,millis,n   followed by n records: one change; a group booking is one change
+ * H,seq,millis     heartbeat, sent after a second without changes
+ * </pre>
+ *
+ * {@code millis} is the primary's clock when the change was made, which a replica on the same
+ * machine compares with its own to measure its lag.
+ */
+public class ReplicationPrimary implements Persistence, ReplicationPrimaryMXBean {
+    private static final long HEARTBEAT_MILLIS = 1000;
+
+    private final Persistence delegate;
+    private final int port;
+    private final int queueCapacity;
+    private final HotelMetrics metrics;
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    // Orders sequence numbers and queueing, so every replica sees the changes in one order
+    private final Object shipLock = new Object();
+
+    private EntityStore store;
+    private ServerSocket server;
+    private long sequence;
+    private volatile boolean closed;
+
+    private record Change(long sequence, long millis, List<String> records) {
+    }
+
+    public ReplicationPrimary(Persistence delegate, HotelConfig config, HotelMetrics metrics) {
+        this.delegate = delegate;
+        this.port = config.getReplicationPort();
+        this.queueCapacity = config.getReplicationQueueCapacity();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        metrics.addComponent("ReplicationPrimary", this);
+        delegate.load(store);
+        try {
+            server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot listen for replicas on port " + port, e);
+        }
+        Thread acceptor = new Thread(this::accept, "hoteldeck-replication");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Port replicas connect to; the configured one, or the one picked if that was 0.
+     */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Error accepting replica: " + e.getMessage());
+                }
+                continue;
+            }
+            Replica replica = new Replica(socket);
+            // No change is in progress under the write lock, so the copy and the sequence agree
+            store.writeLock().lock();
+            try {
+                synchronized (shipLock) {
+                    replica.customers = new ArrayList<>(store.customers().ordered());
+                    replica.rooms = new ArrayList<>(store.rooms().ordered());
+                    replica.bookings = store.bookingsSnapshot();
+                    replica.copySequence = sequence;
+                    replicas.add(replica);
+                }
+            } finally {
+                store.writeLock().unlock();
+            }
+            Thread sender = new Thread(replica, "hoteldeck-replica-" + socket.getPort());
+            sender.setDaemon(true);
+            sender.start();
+        }
+    }
+
+    /**
+     * One connected replica: its queue, and the copy it is sent first.
+     */
+    private final class Replica implements Runnable {
+        final Socket socket;
+        final BlockingQueue<Change> queue = new ArrayBlockingQueue<>(queueCapacity);
+        List<Customer> customers;
+        List<Room> rooms;
+        List<Booking> bookings;
+        long copySequence;
+
+        Replica(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8), 1 << 16)) {
+                sendCopy(out);
+                while (!closed) {
+                    Change change = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        out.write("H," + sequence() + "," + System.currentTimeMillis() + "\n");
+                        out.flush();
+                        continue;
+                    }
+                    out.write("M," + change.sequence() + "," + change.millis() + "," + change.records().size() + "\n");
+                    for (String record : change.records()) {
+                        out.write(record);
+                        out.write('\n');
+                    }
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Replica on port " + socket.getPort() + " disconnected: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                replicas.remove(this);
+                disconnect();
+            }
+        }
+
+        private void sendCopy(Writer out) throws IOException {
+            out.write("S," + copySequence + "," + System.currentTimeMillis() + ","
+                    + (customers.size() + rooms.size() + bookings.size()) + "\n");
+            for (Customer customer : customers) {
+                out.write(JournalPersistence.customerRecord(customer));
+                out.write('\n');
+            }
+            for (Room room : rooms) {
+                out.write(JournalPersistence.roomRecord(room));
+                out.write('\n');
+            }
+            for (Booking booking : bookings) {
+                out.write(JournalPersistence.bookingRecord(booking));
+                out.write('\n');
+            }
+            out.flush();
+            customers = null;
+            rooms = null;
+            bookings = null;
+        }
+
+        void disconnect() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    /**
+     * Queues one change for every replica. Callers hold the store's lock, so a replica
+     * cannot connect halfway through a change.
+     */
+    private void ship(List<String> records) {
+        if (replicas.isEmpty()) return;
+        synchronized (shipLock) {
+            Change change = new Change(++sequence, System.currentTimeMillis(), records);
+            for (Replica replica : replicas) {
+                if (!replica.queue.offer(change)) {
+                    System.out.println("Replica on port " + replica.socket.getPort()
+                            + " fell too far behind; dropping it until it reconnects.");
+                    replicas.remove(replica);
+                    replica.disconnect();
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private long sequence() {
+        synchronized (shipLock) {
+            return sequence;
+        }
+    }
+
+    @Override
+    public void customerSaved(Customer customer) {
+        delegate.customerSaved(customer);
+        ship(List.of(JournalPersistence.customerRecord(customer)));
+    }
+
+    @Override
+    public void customerDeleted(int customerId) {
+        delegate.customerDeleted(customerId);
+        ship(List.of("c," + customerId));
+    }
+
+    @Override
+    public void roomSaved(Room room) {
+        delegate.roomSaved(room);
+        ship(List.of(JournalPersistence.roomRecord(room)));
+    }
+
+    @Override
+    public void roomDeleted(int roomId) {
+        delegate.roomDeleted(roomId);
+        ship(List.of("r," + roomId));
+    }
+
+    @Override
+    public void bookingSaved(Booking booking) {
+        delegate.bookingSaved(booking);
+        ship(List.of(JournalPersistence.bookingRecord(booking)));
+    }
+
+    @Override
+    public void bookingsSaved(List<Booking> bookings) {
+        delegate.bookingsSaved(bookings);
+        if (replicas.isEmpty()) return;
+        List<String> records = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            records.add(JournalPersistence.bookingRecord(booking));
+        }
+        ship(records);
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking) {
+        delegate.bookingCancelled(booking);
+        ship(List.of("b," + booking.getId()));
+    }
+
+    @Override
+    public void beginBatch() {
+        delegate.beginBatch();
+    }
+
+    @Override
+    public void endBatch() {
+        delegate.endBatch();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence();
+    }
+
+    @Override
+    public int getReplicas() {
+        return replicas.size();
+    }
+
+    @Override
+    public int getQueuedChanges() {
+        int queued = 0;
+        for (Replica replica : replicas) {
+            queued = Math.max(queued, replica.queue.size());
+        }
+        return queued;
+    }
+
+    @Override
+    public long getDroppedReplicas() {
+        return dropped.get();
+    }
+
+    /**
+     * Disconnects the replicas, which keep serving what they have and reconnect when the
+     * primary is back, then closes the wrapped strategy.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.out.println("Error closing replication socket: " + e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            replica.disconnect();
+        }
+        delegate.close();
+    }
+}
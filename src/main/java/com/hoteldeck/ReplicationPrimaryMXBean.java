@@ -0,0 +1,28 @@
+package com.hoteldeck;
+
+/**
+ * The primary's side of replication as seen in JMX, under
+ * {@code com.hoteldeck:type=ReplicationPrimary,name=<name>}.
+ */
+public interface ReplicationPrimaryMXBean {
+
+    /**
+     * Sequence number of the latest change shipped.
+     */
+    long getSequence();
+
+    /**
+     * Replicas connected now.
+     */
+    int getReplicas();
+
+    /**
+     * Changes waiting to be sent to the replica furthest behind.
+     */
+    int getQueuedChanges();
+
+    /**
+     * Replicas dropped because their queue filled up.
+     */
+    long getDroppedReplicas();
+}
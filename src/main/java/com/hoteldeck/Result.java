@@ -0,0 +1,61 @@
+package com.hoteldeck;
+
+/**
+ * Outcome of a {@link HotelDeck} operation: the affected entity on success, otherwise a
+ * status saying why it was refused and a message fit to show a user.
+ */
+public class Result<T> {
+    public enum Status {
+        OK,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    private final Status status;
+    private final T value;
+    private final String message;
+
+    private Result(Status status, T value, String message) {
+        this.status = status;
+        this.value = value;
+        this.message = message;
+    }
+
+    public static <T> Result<T> ok(T value) {
+        return new Result<>(Status.OK, value, null);
+    }
+
+    public static <T> Result<T> invalid(String message) {
+        return new Result<>(Status.INVALID, null, message);
+    }
+
+    public static <T> Result<T> notFound(String message) {
+        return new Result<>(Status.NOT_FOUND, null, message);
+    }
+
+    public static <T> Result<T> conflict(String message) {
+        return new Result<>(Status.CONFLICT, null, message);
+    }
+
+    public boolean isSuccess() {
+        return status == Status.OK;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "Result{OK, " + value + '}' : "Result{" + status + ", '" + message + "'}";
+    }
+}
@@ -4,7 +4,7 @@ public class Room {
     private int id;
     private String type;
     private double price;
-    private boolean isBooked; // Tracks if the room is booked
+    private boolean isBooked; // Occupied today; availability by date lives in AvailabilityIndex
 
     // Constructor
     public Room(int id, String type, double price) {
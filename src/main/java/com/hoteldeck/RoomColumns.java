@@ -0,0 +1,146 @@
+package com.hoteldeck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The room inventory as columns, one array per field, kept up to date by {@link EntityStore}.
+ * Filters such as "all Deluxe up to 6000" scan the type and price columns sequentially
+ * instead of visiting every {@link Room} object; matches are handed back as the rooms
+ * themselves, which stay the entities the rest of the code works with.
+ *
+ * <p>Types are stored as one-byte codes from a dictionary, prices as whole cents and the
+ * booked-today flag as a bit. Rows are not in ID order: a removed row is filled with the last
+ * one, so results are sorted by ID on the way out. Booking changes flip the flag under the
+ * read lock from many threads, so every method synchronizes on this object.
+ */
+public class RoomColumns {
+    private final Map<String, Byte> typeCodes = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final IntMap<Integer> rowOf = new IntMap<>();
+
+    private int[] ids = new int[64];
+    private byte[] types = new byte[64];
+    private long[] priceCents = new long[64];
+    private Room[] rooms = new Room[64];
+    private final BitSet booked = new BitSet();
+    private int size;
+
+    private static String typeKey(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    static long cents(double price) {
+        return Math.round(price * 100);
+    }
+
+    // Returns the type's code, adding it to the dictionary if it is new
+    private byte code(String type) {
+        Byte code = typeCodes.get(typeKey(type));
+        if (code == null) {
+            if (typeNames.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many room types");
+            }
+            code = (byte) typeNames.size();
+            typeCodes.put(typeKey(type), code);
+            typeNames.add(type);
+        }
+        return code;
+    }
+
+    /**
+     * Adds the room, or refreshes its row if the ID is already here.
+     */
+    synchronized void put(Room room) {
+        Integer row = rowOf.get(room.getId());
+        int r;
+        if (row != null) {
+            r = row;
+        } else {
+            if (size == ids.length) {
+                grow();
+            }
+            r = size++;
+            rowOf.put(room.getId(), r);
+        }
+        ids[r] = room.getId();
+        types[r] = code(room.getType());
+        priceCents[r] = cents(room.getPrice());
+        rooms[r] = room;
+        booked.set(r, room.isBooked());
+    }
+
+    synchronized void remove(int roomId) {
+        Integer row = rowOf.remove(roomId);
+        if (row == null) return;
+        int r = row;
+        int last = --size;
+        if (r != last) {
+            ids[r] = ids[last];
+            types[r] = types[last];
+            priceCents[r] = priceCents[last];
+            rooms[r] = rooms[last];
+            booked.set(r, booked.get(last));
+            rowOf.put(ids[r], r);
+        }
+        rooms[last] = null;
+        booked.clear(last);
+    }
+
+    // Ignores a room that has since been removed, even if another now has its ID
+    synchronized void setBooked(Room room, boolean isBooked) {
+        Integer row = rowOf.get(room.getId());
+        if (row != null && rooms[row] == room) {
+            booked.set(row, isBooked);
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+    }
+
+    /**
+     * Rooms of the type (case-insensitively, or any type if null) priced from minPrice to
+     * maxPrice inclusive, optionally only those not booked today, in ID order.
+     */
+    public synchronized List<Room> find(String type, double minPrice, double maxPrice, boolean freeTodayOnly) {
+        int wanted = -1;
+        if (type != null) {
+            Byte code = typeCodes.get(typeKey(type));
+            if (code == null) return new ArrayList<>();
+            wanted = code;
+        }
+        long min = cents(minPrice);
+        long max = cents(maxPrice);
+        int[] matches = new int[16];
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            if ((wanted < 0 || types[r] == wanted) && priceCents[r] >= min && priceCents[r] <= max
+                    && !(freeTodayOnly && booked.get(r))) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = ids[r];
+            }
+        }
+        Arrays.sort(matches, 0, count);
+        List<Room> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(rooms[rowOf.get(matches[i])]);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,121 @@
+package com.hoteldeck;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The bookings of one room as sorted, non-overlapping half-open stays
+ * {@code [checkIn, checkOut)} in epoch days. The check-out day is free for the next guest.
+ * Overlap checks are a binary search over the check-in column. Each stay keeps only its
+ * booking's ID; the booking itself lives in {@link BookingColumns}. The IDs are also kept
+ * in ID order, so a page of the room's bookings is a seek rather than a sort.
+ */
+public class RoomSchedule {
+    private int[] starts = new int[4];
+    private int[] ends = new int[4];
+    private int[] bookingIds = new int[4];
+    private final SortedIntSet sortedIds = new SortedIntSet();
+    private int size;
+
+    public static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    // Index of the last stay that starts before the given day, or -1
+    private int lastStartingBefore(int day) {
+        int left = 0;
+        int right = size - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            if (starts[mid] < day) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return right;
+    }
+
+    /**
+     * True if no stay overlaps {@code [checkIn, checkOut)}. Since stays never overlap each
+     * other, only the last stay starting before {@code checkOut} can collide.
+     */
+    public boolean isFree(int checkIn, int checkOut) {
+        int i = lastStartingBefore(checkOut);
+        return i < 0 || ends[i] <= checkIn;
+    }
+
+    public boolean isOccupied(int day) {
+        return !isFree(day, day + 1);
+    }
+
+    /**
+     * Inserts the booking's stay, or returns false without changing anything if it overlaps.
+     */
+    public boolean add(Booking booking) {
+        int checkIn = epochDay(booking.getCheckInDate());
+        int checkOut = epochDay(booking.getCheckOutDate());
+        if (!isFree(checkIn, checkOut)) {
+            return false;
+        }
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            bookingIds = Arrays.copyOf(bookingIds, capacity);
+        }
+        int pos = lastStartingBefore(checkOut) + 1;
+        System.arraycopy(starts, pos, starts, pos + 1, size - pos);
+        System.arraycopy(ends, pos, ends, pos + 1, size - pos);
+        System.arraycopy(bookingIds, pos, bookingIds, pos + 1, size - pos);
+        starts[pos] = checkIn;
+        ends[pos] = checkOut;
+        bookingIds[pos] = booking.getId();
+        sortedIds.add(booking.getId());
+        size++;
+        return true;
+    }
+
+    public boolean remove(Booking booking) {
+        int i = lastStartingBefore(epochDay(booking.getCheckInDate()) + 1);
+        if (i < 0 || bookingIds[i] != booking.getId()) {
+            return false;
+        }
+        System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+        System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+        System.arraycopy(bookingIds, i + 1, bookingIds, i, size - i - 1);
+        sortedIds.remove(booking.getId());
+        size--;
+        return true;
+    }
+
+    /**
+     * The ID of the booking whose stay covers the given day, or -1.
+     */
+    public int bookingOn(int day) {
+        int i = lastStartingBefore(day + 1);
+        return i >= 0 && ends[i] > day ? bookingIds[i] : -1;
+    }
+
+    /**
+     * The booking IDs in check-in order.
+     */
+    public int[] bookingIds() {
+        return Arrays.copyOf(bookingIds, size);
+    }
+
+    /**
+     * Up to {@code max} of the booking IDs greater than {@code afterId}, in ID order.
+     */
+    public int[] bookingIdsAfter(int afterId, int max) {
+        return sortedIds.after(afterId, max);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,239 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file of equal-width slots, each either free or holding one record whose first field is
+ * its int ID. A slot directory (ID to slot) and a free list are kept in memory, so putting
+ * or removing a record is one positioned write to its slot, however many records the file
+ * holds; freed slots are reused before the file grows.
+ *
+ * <pre>
+ * header  int magic, int version, int slot bytes, then {@value #LAYOUT_INTS} ints that
+ *         describe the record layout to its owner (string field widths)
+ * slot    byte 1 = used, 0 = free; then the record, padded to the slot width
+ * </pre>
+ *
+ * All numbers are little-endian. Writes are not synced until {@link #force()}; a crash can
+ * tear at most the slot being written.
+ */
+public class SlottedRecordFile implements AutoCloseable {
+    static final int VERSION = 1;
+    static final int LAYOUT_INTS = 4;
+    static final int HEADER_BYTES = 12 + 4 * LAYOUT_INTS;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int NO_SLOT = -1;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ORDER);
+
+    /**
+     * Reads one record from the mapped file, ID first at {@code offset}. A record it cannot
+     * make sense of is rejected by throwing a {@link RuntimeException}.
+     */
+    public interface Reader {
+        void read(MemorySegment data, long offset);
+    }
+
+    private final Path file;
+    private final int slotBytes;
+    private final int[] layout;
+    private final FileChannel channel;
+    private final IntIntMap slots = new IntIntMap(NO_SLOT);
+    private final ByteBuffer slot;
+    private int[] free = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    private SlottedRecordFile(Path file, int slotBytes, int[] layout, FileChannel channel) {
+        this.file = file;
+        this.slotBytes = slotBytes;
+        this.layout = layout;
+        this.channel = channel;
+        this.slot = ByteBuffer.allocate(slotBytes).order(ORDER);
+    }
+
+    /**
+     * Opens the file, creating it empty with the given layout if it does not exist yet. An
+     * existing file keeps the layout it was written with; see {@link #layout()}.
+     *
+     * @param recordBytes record width for a new file, not counting the used flag
+     */
+    public static SlottedRecordFile open(Path file, int magic, int recordBytes, int[] layout) throws IOException {
+        if (!Files.exists(file)) {
+            create(file, magic, recordBytes, layout);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != magic) {
+                throw new IOException(file + " is not a Hotel Deck record file");
+            }
+            int version = header.getInt();
+            if (version > VERSION) {
+                throw new IOException(file + " was written by a newer Hotel Deck (format version " + version + ")");
+            }
+            int slotBytes = header.getInt();
+            int[] fileLayout = new int[LAYOUT_INTS];
+            for (int i = 0; i < LAYOUT_INTS; i++) {
+                fileLayout[i] = header.getInt();
+            }
+            return new SlottedRecordFile(file, slotBytes, fileLayout, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void create(Path file, int magic, int recordBytes, int[] layout) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        header.putInt(magic).putInt(VERSION).putInt(1 + recordBytes);
+        for (int i = 0; i < LAYOUT_INTS; i++) {
+            header.putInt(i < layout.length ? layout[i] : 0);
+        }
+        header.flip();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int[] layout() {
+        return layout.clone();
+    }
+
+    /**
+     * Record width, not counting the used flag.
+     */
+    public int recordBytes() {
+        return slotBytes - 1;
+    }
+
+    /**
+     * Maps the file and hands every used slot's record to the reader, in slot order, while
+     * building the slot directory and free list. Call once, before any other change.
+     * A record the reader rejects is reported and its slot freed, so the rest of the file
+     * still loads. Returns the number of records read.
+     */
+    public synchronized int load(Reader reader) throws IOException {
+        long size = channel.size();
+        slotCount = (int) ((size - HEADER_BYTES) / slotBytes);
+        int records = 0;
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            for (int i = 0; i < slotCount; i++) {
+                long offset = HEADER_BYTES + (long) i * slotBytes;
+                if (data.get(ValueLayout.JAVA_BYTE, offset) == 0) {
+                    pushFree(i);
+                    continue;
+                }
+                int id = data.get(INT, offset + 1);
+                try {
+                    reader.read(data, offset + 1);
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping corrupt record " + id + " in slot " + i + " of " + file + ": "
+                            + e.getMessage());
+                    pushFree(i);
+                    continue;
+                }
+                slots.put(id, i);
+                records++;
+            }
+        }
+        // Hand out the lowest free slots first, so a file that shrank fills from the front
+        for (int i = 0, j = freeCount - 1; i < j; i++, j--) {
+            int t = free[i];
+            free[i] = free[j];
+            free[j] = t;
+        }
+        return records;
+    }
+
+    /**
+     * Writes the record into the ID's slot, or into a free slot if the ID has none. The
+     * buffer holds the record from its position to its limit, ID first, at most
+     * {@link #recordBytes()} long. Returns the bytes written.
+     */
+    public synchronized int put(int id, ByteBuffer record) throws IOException {
+        int index = slots.get(id);
+        if (index == NO_SLOT) {
+            index = freeCount > 0 ? free[--freeCount] : slotCount++;
+            slots.put(id, index);
+        }
+        slot.clear();
+        slot.put((byte) 1).put(record);
+        // Zero the rest of the slot, so a shorter record never shows an older one's tail
+        Arrays.fill(slot.array(), slot.position(), slotBytes, (byte) 0);
+        slot.position(slotBytes).flip();
+        return write(slot, position(index));
+    }
+
+    /**
+     * Marks the ID's slot free with a one-byte write. Returns false if the ID has no slot.
+     */
+    public synchronized boolean remove(int id) throws IOException {
+        int index = slots.remove(id);
+        if (index == NO_SLOT) return false;
+        write(ByteBuffer.wrap(new byte[]{0}), position(index));
+        pushFree(index);
+        return true;
+    }
+
+    public synchronized boolean contains(int id) {
+        return slots.containsKey(id);
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private long position(int index) {
+        return HEADER_BYTES + (long) index * slotBytes;
+    }
+
+    private int write(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private void pushFree(int index) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = index;
+    }
+
+    /**
+     * Blocks until every write so far is on disk.
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.hoteldeck;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A full point-in-time copy of the hotel on disk, as written by journal compaction.
+ */
+public interface Snapshot {
+
+    /**
+     * Populates an empty store from the snapshot, if there is one.
+     */
+    void load(EntityStore store);
+
+    /**
+     * Replaces the snapshot. Implementations write to a temporary file first, so a crash
+     * mid-write leaves the previous snapshot intact.
+     */
+    void save(List<Customer> customers, List<Room> rooms, List<Booking> bookings) throws IOException;
+}
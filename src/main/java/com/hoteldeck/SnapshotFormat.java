@@ -0,0 +1,16 @@
+package com.hoteldeck;
+
+/**
+ * File format of the snapshots that journal persistence compacts into. CSV persistence
+ * always rewrites the CSV files.
+ */
+public enum SnapshotFormat {
+    /** customers.csv, Room.csv and Booking.csv. */
+    CSV,
+    /**
+     * One binary file, {@link BinarySnapshot#SNAPSHOT_FILE}. When it does not exist yet the
+     * CSV files are imported instead. Export with {@code --export-csv} before switching back
+     * to CSV, as the CSV files are no longer kept up to date.
+     */
+    BINARY
+}
@@ -0,0 +1,81 @@
+package com.hoteldeck;
+
+import java.util.Arrays;
+
+/**
+ * A growable set of ints kept in ascending order in one array: binary-search lookups,
+ * ordered iteration by index and four bytes per element, with no boxing. Inserts and
+ * removals shift the tail, so it suits the short per-key lists the booking indexes hold.
+ */
+public class SortedIntSet {
+    private int[] values;
+    private int size;
+
+    public SortedIntSet() {
+        this(4);
+    }
+
+    public SortedIntSet(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    private int search(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    /**
+     * Adds the value; returns false if it was already present.
+     */
+    public boolean add(int value) {
+        int pos = search(value);
+        if (pos >= 0) return false;
+        pos = -(pos + 1);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int pos = search(value);
+        if (pos < 0) return false;
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return search(value) >= 0;
+    }
+
+    /**
+     * The i-th smallest value.
+     */
+    public int get(int i) {
+        return values[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Up to {@code max} values greater than {@code value}, ascending.
+     */
+    public int[] after(int value, int max) {
+        int pos = search(value);
+        int from = pos >= 0 ? pos + 1 : -(pos + 1);
+        return Arrays.copyOfRange(values, from, from + Math.min(max, size - from));
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,321 @@
+package com.hoteldeck;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind persistence over another strategy (CSV or journal). Changes are already in
+ * memory when they are reported; here they only go onto a bounded queue, and a background
+ * persister hands them to the wrapped strategy in batches, so requests never wait for the disk.
+ *
+ * <p>Group commit: a batch closes once it holds {@code batchSize} changes or
+ * {@code intervalMillis} after its first change, whichever comes first, and is written in one
+ * go between {@link Persistence#beginBatch()} and {@link Persistence#endBatch()}: one rewrite
+ * per touched CSV file, or one journal append. Within a batch, repeated saves of the same
+ * customer, room or booking collapse into one, and a booking cancelled before it was written
+ * is dropped altogether. Deletes are kept in order, so a replayed journal never sees a booking
+ * whose room or customer is missing.
+ *
+ * <p>Backpressure: when the persister falls behind and the queue is full, the thread reporting
+ * a change waits for room. {@link #flush()} and {@link #close()} return only once everything
+ * reported before them is written, and a shutdown hook closes the persister if the JVM stops
+ * without {@code close()}. A crash can lose the changes still queued. A change reported after
+ * {@code close()} is refused rather than queued, as nothing would ever take it off the queue.
+ */
+public class WriteBehindPersistence implements Persistence {
+    private final Persistence delegate;
+    private final BlockingQueue<Change> queue;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final Thread persister;
+    // Changes are queued under the read lock and close() sets closed under the write lock,
+    // so nothing can be queued behind the stop marker
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private EntityStore store;
+    private Thread shutdownHook;
+    private boolean closed;
+
+    // kind: C/c customer saved/deleted, R/r room, B/b booking, G group of bookings, F flush, X stop
+    private record Change(char kind, int id, Object entity, CountDownLatch done) {
+    }
+
+    public WriteBehindPersistence(Persistence delegate, HotelConfig config) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(config.getWriteBehindQueueCapacity());
+        this.batchSize = config.getWriteBehindBatchSize();
+        this.intervalMillis = config.getWriteBehindIntervalMillis();
+        this.persister = new Thread(this::run, "hoteldeck-write-behind");
+        this.persister.setDaemon(true);
+    }
+
+    @Override
+    public void load(EntityStore store) {
+        this.store = store;
+        delegate.load(store);
+        persister.start();
+        shutdownHook = new Thread(this::close, "hoteldeck-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public void customerSaved(Customer customer) {
+        enqueue(new Change('C', customer.getId(), customer, null));
+    }
+
+    @Override
+    public void customerDeleted(int customerId) {
+        enqueue(new Change('c', customerId, null, null));
+    }
+
+    @Override
+    public void roomSaved(Room room) {
+        enqueue(new Change('R', room.getId(), room, null));
+    }
+
+    @Override
+    public void roomDeleted(int roomId) {
+        enqueue(new Change('r', roomId, null, null));
+    }
+
+    @Override
+    public void bookingSaved(Booking booking) {
+        enqueue(new Change('B', booking.getId(), booking, null));
+    }
+
+    @Override
+    public void bookingsSaved(List<Booking> bookings) {
+        enqueue(new Change('G', 0, new ArrayList<>(bookings), null));
+    }
+
+    @Override
+    public void bookingCancelled(Booking booking) {
+        enqueue(new Change('b', booking.getId(), booking, null));
+    }
+
+    // Batches are opened and closed by the persister itself
+    @Override
+    public void beginBatch() {
+    }
+
+    @Override
+    public void endBatch() {
+    }
+
+    private void enqueue(Change change) {
+        if (!putUnlessClosed(change)) {
+            System.out.println("Error saving a change: " + (Thread.currentThread().isInterrupted()
+                    ? "interrupted while queueing it" : "persistence is closed") + "; it was not saved.");
+        }
+    }
+
+    private boolean putUnlessClosed(Change change) {
+        closeLock.readLock().lock();
+        try {
+            return !closed && put(change);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for room on the queue while the persister runs. Returns false, without waiting
+     * further, once the persister has stopped or the caller is interrupted.
+     */
+    private boolean put(Change change) {
+        try {
+            while (!queue.offer(change, 10, TimeUnit.MILLISECONDS)) {
+                if (!persister.isAlive()) return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Blocks until every change reported before the call is written by the wrapped strategy
+     * and that strategy has flushed.
+     */
+    @Override
+    public void flush() {
+        CountDownLatch done = new CountDownLatch(1);
+        if (putUnlessClosed(new Change('F', 0, null, done))) {
+            await(done);
+        }
+    }
+
+    /**
+     * Writes out the queue, stops the persister and closes the wrapped strategy. Safe to call
+     * more than once and from the shutdown hook.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        if (put(new Change('X', 0, null, done))) {
+            await(done);
+            try {
+                persister.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+        delegate.close();
+    }
+
+    // Changes queued before a marker are written before it is answered
+    private static void await(CountDownLatch done) {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Change> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                while (batch.size() < batchSize && !isMarker(batch.get(batch.size() - 1))) {
+                    Change next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Nothing interrupts the persister; write what we have and carry on
+            }
+            running = write(batch);
+        }
+    }
+
+    private static boolean isMarker(Change change) {
+        return change.kind == 'F' || change.kind == 'X';
+    }
+
+    /**
+     * Writes one batch under the store's read lock. Returns false once the stop marker is seen.
+     */
+    private boolean write(List<Change> batch) {
+        Lock readLock = store.readLock();
+        // A writer holding the write lock may itself be waiting for queue space,
+        // so keep taking changes off the queue until the read lock comes free
+        while (!readLock.tryLock()) {
+            queue.drainTo(batch);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean running = true;
+        try {
+            delegate.beginBatch();
+            for (Change change : coalesce(batch)) {
+                apply(change);
+            }
+            delegate.endBatch();
+            for (Change change : batch) {
+                if (change.kind == 'X') running = false;
+            }
+            if (hasMarker(batch)) {
+                delegate.flush();
+            }
+        } finally {
+            readLock.unlock();
+        }
+        for (Change change : batch) {
+            if (change.done != null) {
+                change.done.countDown();
+            }
+        }
+        return running;
+    }
+
+    private static boolean hasMarker(List<Change> batch) {
+        for (Change change : batch) {
+            if (isMarker(change)) return true;
+        }
+        return false;
+    }
+
+    private static List<Change> coalesce(List<Change> batch) {
+        List<Change> out = new ArrayList<>(batch.size());
+        // Position in out of the pending save for each entity, by kind and ID
+        Map<Long, Integer> pendingSave = new HashMap<>();
+        for (Change change : batch) {
+            long key = (long) Character.toUpperCase(change.kind) << 32 | (change.id & 0xFFFFFFFFL);
+            switch (change.kind) {
+                case 'C', 'R', 'B' -> {
+                    Integer pos = pendingSave.get(key);
+                    if (pos != null) {
+                        out.set(pos, change);
+                    } else {
+                        pendingSave.put(key, out.size());
+                        out.add(change);
+                    }
+                }
+                case 'b' -> {
+                    Integer pos = pendingSave.remove(key);
+                    if (pos != null) {
+                        // Booked and cancelled within the batch: never reaches disk
+                        out.set(pos, null);
+                    } else {
+                        out.add(change);
+                    }
+                }
+                case 'c', 'r' -> {
+                    pendingSave.remove(key);
+                    out.add(change);
+                }
+                case 'G' -> out.add(change);
+                default -> {
+                }
+            }
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(Change change) {
+        if (change == null) return;
+        switch (change.kind) {
+            case 'C' -> delegate.customerSaved((Customer) change.entity);
+            case 'c' -> delegate.customerDeleted(change.id);
+            case 'R' -> delegate.roomSaved((Room) change.entity);
+            case 'r' -> delegate.roomDeleted(change.id);
+            case 'B' -> delegate.bookingSaved((Booking) change.entity);
+            case 'G' -> delegate.bookingsSaved((List<Booking>) change.entity);
+            case 'b' -> delegate.bookingCancelled((Booking) change.entity);
+            default -> {
+            }
+        }
+    }
+}